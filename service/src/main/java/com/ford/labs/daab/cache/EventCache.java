@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.cache;
+
+import com.ford.labs.daab.event.Event;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveHashOperations;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+public class EventCache {
+    private static final Logger log = org.slf4j.LoggerFactory.getLogger(EventCache.class);
+    private static final int MAX_DELETIONS = 1024;
+
+    private ReactiveRedisTemplate<String, byte[]> eventBytesTemplate;
+    private EventStream eventStream;
+    private RedisSerializer<Event> eventSerializer;
+    private long maxBytes;
+
+    private final Map<String, EventRecord> records = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, Long> deletions = new LinkedHashMap<>();
+    private long bytes;
+    private boolean complete;
+    private boolean truncated;
+    private long latestVersion;
+    private long deletedThroughVersion;
+    private List<EventRecord> snapshot;
+    private byte[] snapshotFrame;
+
+    private Counter hits;
+    private Counter misses;
+    private Counter evictions;
+
+    public EventCache(
+            ReactiveRedisTemplate<String, byte[]> eventBytesTemplate,
+            EventStream eventStream,
+            RedisSerializer<Event> eventSerializer,
+            MeterRegistry meterRegistry,
+            @Value("${event.cache.max-bytes:16777216}") long maxBytes
+    ) {
+        this.eventBytesTemplate = eventBytesTemplate;
+        this.eventStream = eventStream;
+        this.eventSerializer = eventSerializer;
+        this.maxBytes = maxBytes;
+
+        this.hits = Counter.builder("event.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("event.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("event.cache.evictions").register(meterRegistry);
+        Gauge.builder("event.cache.size", this, EventCache::size).register(meterRegistry);
+        Gauge.builder("event.cache.bytes", this, EventCache::bytes).register(meterRegistry);
+    }
+
+    public Mono<EventRecord> get(String id) {
+        EventRecord record = lookup(id);
+        if (record != null) {
+            hits.increment();
+            return Mono.just(record);
+        }
+
+        if (isComplete()) {
+            hits.increment();
+            return Mono.empty();
+        }
+
+        misses.increment();
+        return getEventHashOperations().get("event", id)
+                .flatMap(json -> Mono.justOrEmpty(store(new EventRecord(id, json, eventSerializer), false)));
+    }
+
+    public Flux<EventRecord> snapshot() {
+        if (isComplete()) {
+            hits.increment();
+            return Flux.fromIterable(records());
+        }
+
+        misses.increment();
+        return readAll();
+    }
+
+    public Mono<byte[]> snapshotFrame() {
+        if (isComplete()) {
+            hits.increment();
+            return Mono.just(frame());
+        }
+
+        misses.increment();
+        return readAll()
+                .collectList()
+                .map(EventRecord::toJsonArray);
+    }
+
+    public Flux<EventRecord> changedSince(long version) {
+        if (!canResumeFrom(version)) {
+            return snapshot();
+        }
+
+        hits.increment();
+        return Flux.fromIterable(records())
+                .filter(record -> record.getVersion() > version)
+                .concatWith(Flux.fromIterable(deletedSince(version)));
+    }
+
+    public void put(Event event, byte[] json) {
+        store(new EventRecord(event.getId(), json, event), true);
+    }
+
+    public void evict(EventRecord tombstone) {
+        remove(tombstone);
+    }
+
+    public Mono<Void> listen() {
+        return Flux.merge(
+                eventStream.records()
+                        .doOnNext(record -> store(record, true))
+                        .map(EventRecord::getId),
+                eventStream.deletions()
+                        .doOnNext(this::remove)
+        ).then();
+    }
+
+    public Mono<Void> bootstrap() {
+        return Mono.fromRunnable(this::startBootstrap)
+                .thenMany(loadAll())
+                .then(Mono.fromRunnable(this::finishBootstrap));
+    }
+
+    public synchronized void invalidate() {
+        records.clear();
+        deletions.clear();
+        bytes = 0;
+        complete = false;
+        deletedThroughVersion = latestVersion;
+        latestVersion = 0;
+        changed();
+    }
+
+    public synchronized boolean isComplete() {
+        return complete;
+    }
+
+    private synchronized boolean canResumeFrom(long version) {
+        return complete && version > 0 && version <= latestVersion && version > deletedThroughVersion;
+    }
+
+    synchronized int size() {
+        return records.size();
+    }
+
+    synchronized long bytes() {
+        return bytes;
+    }
+
+    private Flux<EventRecord> loadAll() {
+        return getEventHashOperations().entries("event")
+                .flatMap(entry -> Mono.justOrEmpty(store(new EventRecord(entry.getKey(), entry.getValue(), eventSerializer), false)));
+    }
+
+    // Serves a snapshot the cache cannot hold without pulling it through the LRU, which would only evict itself.
+    private Flux<EventRecord> readAll() {
+        return getEventHashOperations().entries("event")
+                .flatMap(entry -> Mono.justOrEmpty(current(new EventRecord(entry.getKey(), entry.getValue(), eventSerializer))));
+    }
+
+    private synchronized EventRecord current(EventRecord record) {
+        Long deletedAt = deletions.get(record.getId());
+        if (deletedAt != null && record.getVersion() <= deletedAt) {
+            return null;
+        }
+
+        EventRecord existing = records.get(record.getId());
+        return existing != null && !shouldReplace(existing, record, false) ? existing : record;
+    }
+
+    private synchronized List<EventRecord> deletedSince(long version) {
+        return deletions.entrySet().stream()
+                .filter(deletion -> deletion.getValue() > version)
+                .map(deletion -> EventRecord.tombstone(deletion.getKey(), deletion.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    private synchronized EventRecord lookup(String id) {
+        return records.get(id);
+    }
+
+    private synchronized List<EventRecord> records() {
+        if (snapshot == null) {
+            snapshot = List.copyOf(records.values());
+        }
+        return snapshot;
+    }
+
+    private synchronized byte[] frame() {
+        if (snapshotFrame == null) {
+            snapshotFrame = EventRecord.toJsonArray(records());
+        }
+        return snapshotFrame;
+    }
+
+    private void changed() {
+        snapshot = null;
+        snapshotFrame = null;
+    }
+
+    private synchronized EventRecord store(EventRecord record, boolean replace) {
+        Long deletedAt = deletions.get(record.getId());
+        if (deletedAt != null && record.getVersion() <= deletedAt) {
+            return null;
+        }
+
+        EventRecord existing = records.get(record.getId());
+        if (existing != null) {
+            if (!shouldReplace(existing, record, replace)) {
+                return existing;
+            }
+            bytes -= existing.getSize();
+        }
+
+        records.put(record.getId(), record);
+        deletions.remove(record.getId());
+        bytes += record.getSize();
+        latestVersion = Math.max(latestVersion, record.getVersion());
+        changed();
+        trim();
+        return record;
+    }
+
+    private static boolean shouldReplace(EventRecord existing, EventRecord record, boolean replace) {
+        if (existing.getVersion() > 0 && record.getVersion() > 0) {
+            return record.getVersion() > existing.getVersion();
+        }
+        return replace;
+    }
+
+    private synchronized void remove(EventRecord tombstone) {
+        String id = tombstone.getId();
+        EventRecord existing = records.get(id);
+        Long deletedAt = deletions.get(id);
+        if (existing != null && existing.getVersion() > tombstone.getVersion()
+                || deletedAt != null && deletedAt >= tombstone.getVersion()) {
+            return;
+        }
+
+        if (existing != null) {
+            records.remove(id);
+            bytes -= existing.getSize();
+            changed();
+        }
+
+        deletions.remove(id);
+        deletions.put(id, tombstone.getVersion());
+        latestVersion = Math.max(latestVersion, tombstone.getVersion());
+        if (deletions.size() > MAX_DELETIONS) {
+            Iterator<Long> oldest = deletions.values().iterator();
+            deletedThroughVersion = Math.max(deletedThroughVersion, oldest.next());
+            oldest.remove();
+        }
+    }
+
+    private void trim() {
+        Iterator<EventRecord> leastRecentlyUsed = records.values().iterator();
+        if (bytes > maxBytes && records.size() > 1 && !truncated) {
+            log.warn(String.format("Event cache exceeded %d bytes; snapshots will be read from Redis until event.cache.max-bytes is raised", maxBytes));
+        }
+        while (bytes > maxBytes && records.size() > 1) {
+            bytes -= leastRecentlyUsed.next().getSize();
+            leastRecentlyUsed.remove();
+            evictions.increment();
+            complete = false;
+            truncated = true;
+        }
+    }
+
+    private synchronized void startBootstrap() {
+        truncated = false;
+    }
+
+    private synchronized void finishBootstrap() {
+        complete = !truncated;
+    }
+
+    private ReactiveHashOperations<String, String, byte[]> getEventHashOperations() {
+        return eventBytesTemplate.opsForHash();
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.cache;
+
+import org.slf4j.Logger;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+
+@Service
+@Profile("!test")
+public class EventCacheRegistration {
+    private static final Logger log = org.slf4j.LoggerFactory.getLogger(EventCacheRegistration.class);
+
+    private EventCache eventCache;
+    private EventStream eventStream;
+
+    public EventCacheRegistration(EventCache eventCache, EventStream eventStream) {
+        this.eventCache = eventCache;
+        this.eventStream = eventStream;
+    }
+
+    @PostConstruct
+    public void start() {
+        Mono.when(eventCache.listen(), eventStream.awaitSubscribed().then(eventCache.bootstrap()))
+                .doOnError(error -> {
+                    log.warn("Event cache lost its subscription, reloading from Redis.", error);
+                    eventCache.invalidate();
+                })
+                .retryBackoff(Long.MAX_VALUE, Duration.ofSeconds(1), Duration.ofMinutes(1))
+                .subscribe();
+    }
+}
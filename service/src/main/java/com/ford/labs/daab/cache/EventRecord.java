@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.cache;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.ford.labs.daab.event.Event;
+import lombok.Getter;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class EventRecord {
+    private static final byte[] VERSION_PREFIX = "{\"version\":".getBytes(UTF_8);
+
+    @Getter private final String id;
+    @Getter private final byte[] json;
+    @Getter private final long version;
+    @Getter private final boolean deleted;
+
+    private RedisSerializer<Event> eventSerializer;
+    private volatile Event event;
+
+    public EventRecord(String id, byte[] json, Event event) {
+        this.id = id;
+        this.json = json;
+        this.version = parseVersion(json);
+        this.deleted = false;
+        this.event = event;
+    }
+
+    public EventRecord(String id, byte[] json, RedisSerializer<Event> eventSerializer) {
+        this.id = id;
+        this.json = json;
+        this.version = parseVersion(json);
+        this.deleted = false;
+        this.eventSerializer = eventSerializer;
+    }
+
+    private EventRecord(String id, long version) {
+        this.id = id;
+        this.json = withVersion(tombstoneJson(id), version);
+        this.version = version;
+        this.deleted = true;
+    }
+
+    public static EventRecord tombstone(String id, long version) {
+        return new EventRecord(id, version);
+    }
+
+    public static byte[] tombstoneJson(String id) {
+        return ("{\"id\":\"" + new String(JsonStringEncoder.getInstance().quoteAsString(id)) + "\",\"deleted\":true}").getBytes(UTF_8);
+    }
+
+    public Event getEvent() {
+        if (event == null) {
+            event = eventSerializer.deserialize(json);
+        }
+        return event;
+    }
+
+    public String getJsonString() {
+        return new String(json, UTF_8);
+    }
+
+    public static byte[] withVersion(byte[] unversionedJson, long version) {
+        byte[] prefix = ("{\"version\":" + version + ",").getBytes(UTF_8);
+        byte[] versioned = new byte[prefix.length + unversionedJson.length - 1];
+        System.arraycopy(prefix, 0, versioned, 0, prefix.length);
+        System.arraycopy(unversionedJson, 1, versioned, prefix.length, unversionedJson.length - 1);
+        return versioned;
+    }
+
+    static long parseVersion(byte[] json) {
+        if (!hasVersionPrefix(json)) {
+            return 0;
+        }
+
+        long version = 0;
+        for (int i = VERSION_PREFIX.length; i < json.length && json[i] >= '0' && json[i] <= '9'; i++) {
+            version = version * 10 + (json[i] - '0');
+        }
+        return version;
+    }
+
+    private static boolean hasVersionPrefix(byte[] json) {
+        return Arrays.equals(json, 0, Math.min(json.length, VERSION_PREFIX.length), VERSION_PREFIX, 0, VERSION_PREFIX.length);
+    }
+
+    public static byte[] toJsonArray(List<EventRecord> records) {
+        int length = records.size() + 1;
+        for (EventRecord record : records) {
+            length += record.json.length;
+        }
+
+        byte[] array = new byte[Math.max(length, 2)];
+        int position = 0;
+        array[position++] = '[';
+        for (EventRecord record : records) {
+            if (position > 1) {
+                array[position++] = ',';
+            }
+            System.arraycopy(record.json, 0, array, position, record.json.length);
+            position += record.json.length;
+        }
+        array[position] = ']';
+        return array;
+    }
+
+    public int getSize() {
+        return json.length + id.length() * 2;
+    }
+}
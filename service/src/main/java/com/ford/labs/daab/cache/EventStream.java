@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.cache;
+
+import com.ford.labs.daab.event.Event;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+@Service
+public class EventStream {
+    public static final String DELETED_CHANNEL_PREFIX = "event-deleted.";
+    public static final String SYNC_CHANNEL = "event-sync";
+
+    private static final String CHANNEL_PREFIX = "event.";
+    private static final Duration DISCONNECT_GRACE_PERIOD = Duration.ofMinutes(1);
+    private static final Duration SYNC_INTERVAL = Duration.ofMillis(100);
+
+    private ReactiveRedisTemplate<String, byte[]> eventBytesTemplate;
+    private Flux<ReactiveSubscription.Message<String, byte[]>> messages;
+    private Flux<EventRecord> records;
+    private Flux<EventRecord> deletions;
+
+    public EventStream(ReactiveRedisTemplate<String, byte[]> eventBytesTemplate, RedisSerializer<Event> eventSerializer) {
+        this.eventBytesTemplate = eventBytesTemplate;
+        this.messages = Flux.defer(() -> eventBytesTemplate.listenToPattern("event*"))
+                .<ReactiveSubscription.Message<String, byte[]>>map(message -> message)
+                .publish()
+                .refCount(1, DISCONNECT_GRACE_PERIOD);
+        this.records = messages
+                .filter(message -> message.getChannel().startsWith(CHANNEL_PREFIX))
+                .map(message -> new EventRecord(message.getChannel().substring(CHANNEL_PREFIX.length()), message.getMessage(), eventSerializer));
+        this.deletions = messages
+                .filter(message -> message.getChannel().startsWith(DELETED_CHANNEL_PREFIX))
+                .map(message -> EventRecord.tombstone(
+                        message.getChannel().substring(DELETED_CHANNEL_PREFIX.length()),
+                        EventRecord.parseVersion(message.getMessage())
+                ));
+    }
+
+    public Flux<EventRecord> records() {
+        return records;
+    }
+
+    public Flux<EventRecord> deletions() {
+        return deletions;
+    }
+
+    /**
+     * Completes once the shared pattern subscription is receiving messages, by publishing a marker until it comes back.
+     * Anything published to Redis after this completes is guaranteed to reach {@link #records()} and {@link #deletions()}.
+     */
+    public Mono<Void> awaitSubscribed() {
+        return Mono.defer(() -> {
+            byte[] marker = UUID.randomUUID().toString().getBytes(UTF_8);
+
+            Mono<Void> received = messages
+                    .filter(message -> message.getChannel().equals(SYNC_CHANNEL) && Arrays.equals(message.getMessage(), marker))
+                    .next()
+                    .then();
+            Mono<Void> publishing = Flux.interval(Duration.ZERO, SYNC_INTERVAL)
+                    .concatMap(tick -> eventBytesTemplate.convertAndSend(SYNC_CHANNEL, marker))
+                    .then();
+
+            return Mono.first(received, publishing);
+        });
+    }
+}
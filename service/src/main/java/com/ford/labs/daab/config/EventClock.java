@@ -18,6 +18,7 @@ package com.ford.labs.daab.config;
 
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
 
@@ -26,4 +27,8 @@ public class EventClock {
     public String getISOFormattedDateTime() {
         return OffsetDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME);
     }
+
+    public Instant now() {
+        return Instant.now();
+    }
 }
@@ -20,11 +20,14 @@ import com.ford.labs.daab.event.Event;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.core.ReactiveHashOperations;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
 @Configuration
 public class EventRedisTemplateConfig {
@@ -44,6 +47,33 @@ public class EventRedisTemplateConfig {
         return new ReactiveRedisTemplate<>(factory, eventSerializationContext);
     }
 
+    @Bean
+    public RedisSerializationContext<String, byte[]> eventBytesSerializationContext() {
+        RedisSerializationContext.RedisSerializationContextBuilder<String, byte[]> builder = RedisSerializationContext.newSerializationContext(new Jackson2JsonRedisSerializer<>(String.class));
+        return builder.value(RedisSerializer.byteArray()).hashValue(RedisSerializer.byteArray()).build();
+    }
+
+    @Bean
+    public ReactiveRedisTemplate<String, byte[]> eventBytesRedisTemplate(ReactiveRedisConnectionFactory factory, @Qualifier("eventBytesSerializationContext") RedisSerializationContext<String, byte[]> eventBytesSerializationContext) {
+        return new ReactiveRedisTemplate<>(factory, eventBytesSerializationContext);
+    }
+
+    @Bean
+    public RedisSerializationContext<String, byte[]> eventHistorySerializationContext() {
+        RedisSerializationContext.RedisSerializationContextBuilder<String, byte[]> builder = RedisSerializationContext.newSerializationContext(new Jackson2JsonRedisSerializer<>(String.class));
+        return builder.hashKey(RedisSerializer.string()).hashValue(RedisSerializer.byteArray()).build();
+    }
+
+    @Bean
+    public RedisScript<Long> publishEventScript() {
+        return RedisScript.of(new ClassPathResource("scripts/publish-event.lua"), Long.class);
+    }
+
+    @Bean
+    public RedisScript<Long> deleteEventScript() {
+        return RedisScript.of(new ClassPathResource("scripts/delete-event.lua"), Long.class);
+    }
+
     @Bean
     public ReactiveHashOperations<String, String, Event> eventRedisHashOperations(@Qualifier("eventRedisTemplate") ReactiveRedisTemplate<String, Event> reactiveRedisTemplate, RedisSerializationContext<String, Event> eventSerializationContext) {
         return reactiveRedisTemplate.opsForHash(eventSerializationContext);
@@ -16,6 +16,7 @@
 
 package com.ford.labs.daab.config;
 
+import com.ford.labs.daab.history.EventHistoryHandler;
 import com.ford.labs.daab.publishers.endpoint.EndpointPublisherHandler;
 import com.ford.labs.daab.subscribers.CachedEventSubscriberHandler;
 import org.springframework.beans.factory.annotation.Value;
@@ -58,4 +59,11 @@ public class RouterConfiguration {
                 .DELETE("/event/{id}", endpointPublisherHandler::delete)
                 .build();
     }
+
+    @Bean
+    public RouterFunction<ServerResponse> eventHistoryFunction(EventHistoryHandler eventHistoryHandler) {
+        return route()
+                .GET("/event/{id}/history", eventHistoryHandler::get)
+                .build();
+    }
 }
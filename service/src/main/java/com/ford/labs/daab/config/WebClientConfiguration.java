@@ -16,8 +16,16 @@
 
 package com.ford.labs.daab.config;
 
+import com.ford.labs.daab.http.CircuitBreakerFilter;
+import com.ford.labs.daab.http.HttpCacheFilter;
+import com.ford.labs.daab.http.HttpClientProfile;
+import com.ford.labs.daab.http.HttpClientProfileFilter;
+import com.ford.labs.daab.http.HttpClientProperties;
+import com.ford.labs.daab.http.SingleFlightFilter;
+import io.netty.channel.ChannelOption;
 import io.netty.handler.ssl.SslContextBuilder;
 import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
+import io.netty.handler.timeout.ReadTimeoutHandler;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
@@ -27,16 +35,23 @@ import org.springframework.context.annotation.Primary;
 import org.springframework.http.client.reactive.ClientHttpConnector;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunctions;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 import reactor.netty.tcp.ProxyProvider;
 import reactor.netty.tcp.TcpClient;
 
 import javax.net.ssl.SSLException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
+import static com.ford.labs.daab.http.HttpClientProperties.DEFAULT_PROFILE;
 import static org.slf4j.LoggerFactory.getLogger;
 
 @Configuration
@@ -64,15 +79,21 @@ public class WebClientConfiguration {
 
     @Bean
     @Primary
-    public HttpClient client() throws SSLException {
+    public HttpClient client(HttpClientProperties properties) throws SSLException {
+        return client(DEFAULT_PROFILE, properties.resolveProfiles().get(DEFAULT_PROFILE));
+    }
+
+    public HttpClient client(String name, HttpClientProfile profile) throws SSLException {
         var sslContext = SslContextBuilder
                 .forClient()
                 .trustManager(InsecureTrustManagerFactory.INSTANCE)
                 .build();
 
-        return HttpClient.create()
+        return HttpClient.create(connectionProvider(name, profile))
                 .secure(sslContextSpec -> sslContextSpec.sslContext(sslContext))
-                .tcpConfiguration(this::addProxyToTcpClient)
+                .tcpConfiguration(tcpClient -> addProxyToTcpClient(tcpClient)
+                        .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) profile.getConnectTimeout().toMillis()))
+                .doOnRequest((request, connection) -> connection.addHandlerLast(new ReadTimeoutHandler(profile.getReadTimeout().toMillis(), TimeUnit.MILLISECONDS)))
                 .followRedirect(true);
     }
 
@@ -81,8 +102,27 @@ public class WebClientConfiguration {
         return new ReactorClientHttpConnector(client);
     }
 
+    @Bean
+    public HttpClientProfileFilter httpClientProfileFilter(HttpClientProperties properties) throws SSLException {
+        Map<String, HttpClientProfile> profiles = properties.resolveProfiles();
+        Map<String, ExchangeFunction> exchanges = new LinkedHashMap<>();
+        for (Map.Entry<String, HttpClientProfile> profile : profiles.entrySet()) {
+            if (!DEFAULT_PROFILE.equals(profile.getKey())) {
+                exchanges.put(profile.getKey(), ExchangeFunctions.create(new ReactorClientHttpConnector(client(profile.getKey(), profile.getValue()))));
+            }
+        }
+
+        log.info(String.format("HTTP client profiles: %s", profiles.keySet()));
+        return new HttpClientProfileFilter(profiles, exchanges);
+    }
+
     @Bean(name = "proxyWebClient")
-    public WebClient proxyWebClient(ClientHttpConnector connector) {
+    public WebClient proxyWebClient(
+            ClientHttpConnector connector,
+            SingleFlightFilter singleFlightFilter,
+            HttpCacheFilter httpCacheFilter,
+            CircuitBreakerFilter circuitBreakerFilter,
+            HttpClientProfileFilter httpClientProfileFilter) {
 
         if (StringUtils.hasText(httpProxy)) {
             log.info(String.format("Using proxy from \"https.proxy\" configuration value: [%s]", httpProxy));
@@ -92,6 +132,20 @@ public class WebClientConfiguration {
 
         return WebClient.builder()
                 .clientConnector(connector)
+                .filter(singleFlightFilter)
+                .filter(httpCacheFilter)
+                .filter(circuitBreakerFilter)
+                .filter(httpClientProfileFilter)
+                .build();
+    }
+
+    private ConnectionProvider connectionProvider(String name, HttpClientProfile profile) {
+        return ConnectionProvider.builder(name)
+                .maxConnections(profile.getMaxConnections())
+                .pendingAcquireMaxCount(profile.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(profile.getPendingAcquireTimeout())
+                .maxIdleTime(profile.getMaxIdleTime())
+                .metrics(true)
                 .build();
     }
 
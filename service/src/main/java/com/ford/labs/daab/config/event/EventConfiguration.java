@@ -19,10 +19,8 @@ package com.ford.labs.daab.config.event;
 import com.ford.labs.daab.config.event.properties.EventProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.scheduling.annotation.EnableScheduling;
 
 @Configuration
-@EnableScheduling
 @EnableConfigurationProperties(EventProperties.class)
 public class EventConfiguration {
 }
@@ -16,12 +16,12 @@
 
 package com.ford.labs.daab.config.event.properties.health;
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
-@AllArgsConstructor
+import java.time.Duration;
+
 @NoArgsConstructor
 @Getter @Setter
 public class HealthApplication {
@@ -30,4 +30,20 @@ public class HealthApplication {
     String url;
     String username;
     String password;
+    String clientProfile;
+    HealthProbeType probe = HealthProbeType.HTTP;
+    /** GET or HEAD */
+    String method = "GET";
+    /** Overrides the client profile's timeouts for this check */
+    Duration timeout;
+    /** Also publishes a health.<id>.latency figure with the p50 and p95 response times */
+    boolean latencyFigure;
+
+    public HealthApplication(String id, String name, String url, String username, String password) {
+        this.id = id;
+        this.name = name;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
 }
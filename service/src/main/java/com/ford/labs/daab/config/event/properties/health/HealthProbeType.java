@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.config.event.properties.health;
+
+public enum HealthProbeType {
+    /** Request the url and expect a 2xx response */
+    HTTP,
+    /** Only open a TCP connection to the url's host and port */
+    TCP,
+    /** Open a connection and complete a TLS handshake, without sending a request */
+    TLS
+}
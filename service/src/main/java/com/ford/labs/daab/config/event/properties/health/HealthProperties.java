@@ -24,4 +24,5 @@ import java.util.List;
 @Getter @Setter
 public class HealthProperties {
     List<HealthApplication> applications;
+    String clientProfile = "health";
 }
@@ -19,6 +19,7 @@ package com.ford.labs.daab.config.event.properties.job;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.time.Duration;
 import java.util.List;
 
 @Getter @Setter
@@ -26,4 +27,11 @@ public class JenkinsJobProperties  {
     String username;
     String token;
     List<JenkinsJob> jobs;
+    int maxInFlightPerHost = 4;
+    boolean batched;
+    List<JenkinsFolder> folders;
+    Duration discoveryInterval = Duration.ofMinutes(5);
+    Duration reconcileInterval = Duration.ofMinutes(10);
+    Duration notificationExpiry = Duration.ofHours(24);
+    String clientProfile = "jenkins";
 }
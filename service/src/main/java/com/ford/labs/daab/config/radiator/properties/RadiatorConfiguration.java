@@ -22,6 +22,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 
 import javax.annotation.PostConstruct;
+import java.time.Duration;
 
 @Configuration
 @Profile({"!test"})
@@ -42,4 +43,11 @@ public class RadiatorConfiguration {
                 .flatMap(service::setConfiguration)
                 .block();
     }
+
+    @PostConstruct
+    public void listenForChanges() {
+        service.listenForChanges()
+                .retryBackoff(Long.MAX_VALUE, Duration.ofSeconds(1), Duration.ofMinutes(1))
+                .subscribe();
+    }
 }
@@ -16,10 +16,15 @@
 
 package com.ford.labs.daab.controllers;
 
+import com.ford.labs.daab.cache.EventRecord;
 import com.ford.labs.daab.event.Event;
-import org.springframework.data.redis.connection.ReactiveSubscription;
+import com.ford.labs.daab.event.EventType;
+import com.ford.labs.daab.subscribers.EventConflator;
+import com.ford.labs.daab.subscribers.EventFilter;
+import com.ford.labs.daab.subscribers.EventSubscriptionService;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -29,9 +34,13 @@ import reactor.core.publisher.Mono;
 public class EventSubmissionController {
 
     ReactiveRedisTemplate<String, Event> eventTemplate;
+    EventSubscriptionService eventSubscriptionService;
+    EventConflator eventConflator;
 
-    public EventSubmissionController(ReactiveRedisTemplate<String, Event> eventTemplate) {
+    public EventSubmissionController(ReactiveRedisTemplate<String, Event> eventTemplate, EventSubscriptionService eventSubscriptionService, EventConflator eventConflator) {
         this.eventTemplate = eventTemplate;
+        this.eventSubscriptionService = eventSubscriptionService;
+        this.eventConflator = eventConflator;
     }
 
     @PostMapping("/event/{id}")
@@ -40,8 +49,14 @@ public class EventSubmissionController {
     }
 
     @GetMapping(value = "/event/all", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public Flux<Event> subscribe() {
-        return eventTemplate.listenToPattern("event*")
-                .map(ReactiveSubscription.Message::getMessage);
+    public Flux<ServerSentEvent<String>> subscribe(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        Flux<EventRecord> live = eventSubscriptionService.subscribeToRecords(EventType.ALL);
+        Flux<EventRecord> records = lastEventId == null || !lastEventId.matches("\\d{1,18}")
+                ? live
+                : Flux.merge(live, eventSubscriptionService.getCachedRecordsChangedSince(EventFilter.all(), Long.parseLong(lastEventId)));
+
+        return eventConflator.conflate(records, eventSubscriptionService.getCachedRecords(EventFilter.all())).map(record -> ServerSentEvent.builder(record.getJsonString())
+                .id(record.getVersion() > 0 ? String.valueOf(record.getVersion()) : null)
+                .build());
     }
 }
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.history;
+
+import com.ford.labs.daab.history.model.EventHistoryPage;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.regex.Pattern;
+
+@Service
+public class EventHistoryHandler {
+    private static final Pattern POSITION = Pattern.compile("\\d+(-\\d+)?");
+    private static final Pattern LIMIT = Pattern.compile("\\d{1,6}");
+    private static final String DEFAULT_LIMIT = "100";
+    private static final int MAX_LIMIT = 1000;
+
+    private EventHistoryService service;
+
+    public EventHistoryHandler(EventHistoryService service) {
+        this.service = service;
+    }
+
+    public Mono<ServerResponse> get(ServerRequest request) {
+        String since = request.queryParam("since").orElse("0");
+        String limit = request.queryParam("limit").orElse(DEFAULT_LIMIT);
+
+        if (!POSITION.matcher(since).matches() || !LIMIT.matcher(limit).matches()) {
+            return ServerResponse.badRequest().build();
+        }
+
+        int count = Math.min(Math.max(Integer.parseInt(limit), 1), MAX_LIMIT);
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(service.getHistory(request.pathVariable("id"), since, count), EventHistoryPage.class);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.history;
+
+import com.ford.labs.daab.history.model.EventHistoryEntry;
+import com.ford.labs.daab.history.model.EventHistoryPage;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStreamOperations;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+@Service
+public class EventHistoryService {
+    private static final String KEY_PREFIX = "event-history.";
+
+    private ReactiveRedisTemplate<String, byte[]> eventBytesTemplate;
+    private RedisSerializationContext<String, byte[]> eventHistorySerializationContext;
+
+    public EventHistoryService(
+            ReactiveRedisTemplate<String, byte[]> eventBytesTemplate,
+            @Qualifier("eventHistorySerializationContext") RedisSerializationContext<String, byte[]> eventHistorySerializationContext
+    ) {
+        this.eventBytesTemplate = eventBytesTemplate;
+        this.eventHistorySerializationContext = eventHistorySerializationContext;
+    }
+
+    public static String historyKey(String id) {
+        return KEY_PREFIX + id;
+    }
+
+    public Mono<EventHistoryPage> getHistory(String id, String since, int limit) {
+        return getStreamOperations()
+                .range(historyKey(id), Range.rightUnbounded(Range.Bound.inclusive(since)), RedisZSetCommands.Limit.limit().count(limit))
+                .collectList()
+                .map(records -> new EventHistoryPage(
+                        records.stream().map(EventHistoryService::toEntry).collect(Collectors.toList()),
+                        records.size() < limit ? null : nextPosition(records)
+                ));
+    }
+
+    private static EventHistoryEntry toEntry(MapRecord<String, String, byte[]> record) {
+        return new EventHistoryEntry(record.getId().getValue(), new String(record.getValue().get("event"), UTF_8));
+    }
+
+    private static String nextPosition(List<MapRecord<String, String, byte[]>> records) {
+        RecordId last = records.get(records.size() - 1).getId();
+        return RecordId.of(last.getTimestamp(), last.getSequence() + 1).getValue();
+    }
+
+    private ReactiveStreamOperations<String, String, byte[]> getStreamOperations() {
+        return eventBytesTemplate.opsForStream(eventHistorySerializationContext);
+    }
+}
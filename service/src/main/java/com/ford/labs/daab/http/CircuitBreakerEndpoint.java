@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.http;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+@Endpoint(id = "circuitbreakers")
+public class CircuitBreakerEndpoint {
+    private final CircuitBreakerFilter circuitBreakerFilter;
+
+    public CircuitBreakerEndpoint(CircuitBreakerFilter circuitBreakerFilter) {
+        this.circuitBreakerFilter = circuitBreakerFilter;
+    }
+
+    @ReadOperation
+    public Map<String, HostCircuitBreaker.Snapshot> circuitBreakers() {
+        return circuitBreakerFilter.getStates();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.http;
+
+import com.ford.labs.daab.config.EventClock;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+@Component
+public class CircuitBreakerFilter implements ExchangeFilterFunction {
+    private static final Logger log = getLogger(CircuitBreakerFilter.class);
+
+    private final EventClock eventClock;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final Duration openDuration;
+    private final int halfOpenProbes;
+    private final Map<String, HostCircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    public CircuitBreakerFilter(
+            EventClock eventClock,
+            @Value("${http.circuit-breaker.window-size:10}") int windowSize,
+            @Value("${http.circuit-breaker.minimum-calls:5}") int minimumCalls,
+            @Value("${http.circuit-breaker.failure-rate-threshold:50}") int failureRateThreshold,
+            @Value("${http.circuit-breaker.open-duration:60s}") Duration openDuration,
+            @Value("${http.circuit-breaker.half-open-probes:1}") int halfOpenProbes) {
+        this.eventClock = eventClock;
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDuration = openDuration;
+        this.halfOpenProbes = halfOpenProbes;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        String host = request.url().getAuthority();
+        if (host == null) {
+            return next.exchange(request);
+        }
+
+        HostCircuitBreaker breaker = breakers.computeIfAbsent(host, key -> new HostCircuitBreaker(windowSize, minimumCalls, failureRateThreshold, openDuration, halfOpenProbes));
+        return Mono.defer(() -> {
+            if (!breaker.tryAcquire(eventClock.now())) {
+                return Mono.error(new CircuitOpenException(host));
+            }
+
+            return next.exchange(request)
+                    .doOnNext(response -> {
+                        if (response.rawStatusCode() >= 500) {
+                            onFailure(breaker, host, "HTTP " + response.rawStatusCode());
+                        } else {
+                            breaker.onSuccess();
+                        }
+                    })
+                    .doOnError(error -> onFailure(breaker, host, error.getMessage()))
+                    .doOnCancel(breaker::onCancel);
+        });
+    }
+
+    private void onFailure(HostCircuitBreaker breaker, String host, String reason) {
+        breaker.onFailure(eventClock.now());
+        if (breaker.snapshot().getState() == HostCircuitBreaker.State.OPEN) {
+            log.warn(String.format("Circuit breaker for [%s] is open: %s", host, reason));
+        }
+    }
+
+    public Map<String, HostCircuitBreaker.Snapshot> getStates() {
+        Map<String, HostCircuitBreaker.Snapshot> states = new TreeMap<>();
+        breakers.forEach((host, breaker) -> states.put(host, breaker.snapshot()));
+        return states;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.http;
+
+import lombok.Value;
+
+import java.time.Duration;
+import java.time.Instant;
+
+public class HostCircuitBreaker {
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final Duration openDuration;
+    private final int halfOpenProbes;
+
+    private final boolean[] outcomes;
+    private int recorded;
+    private int next;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private Instant openedAt;
+    private int probesInFlight;
+    private int probesSucceeded;
+
+    public HostCircuitBreaker(int windowSize, int minimumCalls, int failureRateThreshold, Duration openDuration, int halfOpenProbes) {
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDuration = openDuration;
+        this.halfOpenProbes = halfOpenProbes;
+        this.outcomes = new boolean[windowSize];
+    }
+
+    public synchronized boolean tryAcquire(Instant now) {
+        if (state == State.OPEN && !now.isBefore(openedAt.plus(openDuration))) {
+            state = State.HALF_OPEN;
+            probesInFlight = 0;
+            probesSucceeded = 0;
+        }
+
+        switch (state) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (probesInFlight + probesSucceeded < halfOpenProbes) {
+                    probesInFlight++;
+                    return true;
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            probesInFlight--;
+            probesSucceeded++;
+            if (probesSucceeded >= halfOpenProbes) {
+                close();
+            }
+            return;
+        }
+
+        record(false);
+    }
+
+    public synchronized void onFailure(Instant now) {
+        if (state == State.HALF_OPEN) {
+            open(now);
+            return;
+        }
+
+        record(true);
+        if (recorded >= minimumCalls && failures * 100 >= failureRateThreshold * recorded) {
+            open(now);
+        }
+    }
+
+    public synchronized void onCancel() {
+        if (state == State.HALF_OPEN && probesInFlight > 0) {
+            probesInFlight--;
+        }
+    }
+
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(state, recorded, failures, recorded == 0 ? 0 : failures * 100.0 / recorded, openedAt);
+    }
+
+    private void record(boolean failed) {
+        if (state != State.CLOSED) {
+            return;
+        }
+
+        if (recorded == windowSize) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failed;
+        if (failed) {
+            failures++;
+        }
+        next = (next + 1) % windowSize;
+    }
+
+    private void open(Instant now) {
+        state = State.OPEN;
+        openedAt = now;
+        probesInFlight = 0;
+        probesSucceeded = 0;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        openedAt = null;
+        recorded = 0;
+        next = 0;
+        failures = 0;
+    }
+
+    @Value
+    public static class Snapshot {
+        State state;
+        int calls;
+        int failedCalls;
+        double failureRate;
+        Instant openedAt;
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.http;
+
+import com.ford.labs.daab.config.EventClock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.TreeMap;
+
+@Component
+public class HttpCacheFilter implements ExchangeFilterFunction {
+    public static final String CACHE_STATUS_HEADER = "X-Cache-Status";
+    public static final String HIT = "HIT";
+    public static final String REVALIDATED = "REVALIDATED";
+    public static final String MISS = "MISS";
+
+    private static final DataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+    private final EventClock eventClock;
+    private final long maxEntryBytes;
+    private final Map<String, CachedResponse> entries;
+
+    public HttpCacheFilter(
+            EventClock eventClock,
+            @Value("${http.cache.max-entries:256}") int maxEntries,
+            @Value("${http.cache.max-entry-bytes:1048576}") long maxEntryBytes) {
+        this.eventClock = eventClock;
+        this.maxEntryBytes = maxEntryBytes;
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    public static boolean isUnchanged(HttpEntity<?> entity) {
+        String status = entity.getHeaders().getFirst(CACHE_STATUS_HEADER);
+        return HIT.equals(status) || REVALIDATED.equals(status);
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        if (!isCacheable(request)) {
+            return next.exchange(request);
+        }
+
+        String key = cacheKey(request);
+        CachedResponse cached = entries.get(key);
+        if (cached != null && cached.isFresh(eventClock.now()) && !hasDirective(request.headers(), "no-cache")) {
+            return Mono.just(cached.toResponse(HIT));
+        }
+
+        return next.exchange(cached == null ? request : withValidators(request, cached))
+                .flatMap(response -> {
+                    if (cached != null && response.statusCode() == HttpStatus.NOT_MODIFIED) {
+                        return response.releaseBody()
+                                .then(Mono.fromSupplier(() -> revalidate(key, cached, response.headers().asHttpHeaders())));
+                    }
+                    if (response.statusCode() != HttpStatus.OK) {
+                        return Mono.just(response);
+                    }
+                    if (!isStorable(response.headers().asHttpHeaders())) {
+                        entries.remove(key);
+                        return Mono.just(response);
+                    }
+
+                    return store(key, response);
+                });
+    }
+
+    private ClientResponse revalidate(String key, CachedResponse cached, HttpHeaders notModifiedHeaders) {
+        CachedResponse revalidated = cached.revalidated(notModifiedHeaders, eventClock.now());
+        entries.put(key, revalidated);
+        return revalidated.toResponse(REVALIDATED);
+    }
+
+    // The body streams through to the caller while a copy of at most max-entry-bytes is kept, so an oversized or
+    // unknown-length body is never buffered whole. The entry is stored once the body completes within the limit.
+    private Mono<ClientResponse> store(String key, ClientResponse response) {
+        OptionalLong contentLength = response.headers().contentLength();
+        if (contentLength.isPresent() && contentLength.getAsLong() > maxEntryBytes) {
+            entries.remove(key);
+            return Mono.just(response);
+        }
+
+        HttpHeaders headers = response.headers().asHttpHeaders();
+        Instant receivedAt = eventClock.now();
+        ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        AtomicBoolean overflowed = new AtomicBoolean();
+        Flux<DataBuffer> body = response.body(BodyExtractors.toDataBuffers())
+                .doOnNext(buffer -> {
+                    if (overflowed.get()) {
+                        return;
+                    }
+                    if (copy.size() + buffer.readableByteCount() > maxEntryBytes) {
+                        overflowed.set(true);
+                        copy.reset();
+                        return;
+                    }
+                    ByteBuffer readable = buffer.asByteBuffer();
+                    byte[] bytes = new byte[readable.remaining()];
+                    readable.get(bytes);
+                    copy.write(bytes, 0, bytes.length);
+                })
+                .doOnComplete(() -> {
+                    if (overflowed.get()) {
+                        entries.remove(key);
+                    } else {
+                        entries.put(key, new CachedResponse(headers, copy.toByteArray(), response.strategies(), receivedAt));
+                    }
+                });
+
+        return Mono.just(ClientResponse.from(response)
+                .headers(responseHeaders -> responseHeaders.set(CACHE_STATUS_HEADER, MISS))
+                .body(body)
+                .build());
+    }
+
+    private static boolean isCacheable(ClientRequest request) {
+        HttpHeaders headers = request.headers();
+        return request.method() == HttpMethod.GET
+                && !headers.containsKey(HttpHeaders.IF_NONE_MATCH)
+                && !headers.containsKey(HttpHeaders.IF_MODIFIED_SINCE)
+                && !hasDirective(headers, "no-store");
+    }
+
+    private static boolean isStorable(HttpHeaders headers) {
+        if (hasDirective(headers, "no-store")) {
+            return false;
+        }
+
+        return headers.getETag() != null
+                || headers.getLastModified() >= 0
+                || !freshnessLifetime(headers).isZero();
+    }
+
+    private static ClientRequest withValidators(ClientRequest request, CachedResponse cached) {
+        return ClientRequest.from(request)
+                .headers(headers -> {
+                    if (cached.getHeaders().getETag() != null) {
+                        headers.setIfNoneMatch(cached.getHeaders().getETag());
+                    }
+                    if (cached.getHeaders().getLastModified() >= 0) {
+                        headers.setIfModifiedSince(cached.getHeaders().getLastModified());
+                    }
+                })
+                .build();
+    }
+
+    private static String cacheKey(ClientRequest request) {
+        Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        headers.putAll(request.headers());
+        headers.remove(HttpHeaders.CACHE_CONTROL);
+        headers.remove(HttpHeaders.PRAGMA);
+        return request.url() + " " + headers;
+    }
+
+    private static boolean hasDirective(HttpHeaders headers, String directive) {
+        return headers.getOrEmpty(HttpHeaders.CACHE_CONTROL).stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .map(String::trim)
+                .anyMatch(directive::equalsIgnoreCase);
+    }
+
+    static Duration freshnessLifetime(HttpHeaders headers) {
+        if (hasDirective(headers, "no-cache")) {
+            return Duration.ZERO;
+        }
+
+        for (String value : headers.getOrEmpty(HttpHeaders.CACHE_CONTROL)) {
+            for (String directive : value.split(",")) {
+                String[] parts = directive.trim().split("=", 2);
+                if (parts.length == 2 && parts[0].equalsIgnoreCase("max-age")) {
+                    try {
+                        long maxAge = Long.parseLong(parts[1].trim().replace("\"", ""));
+                        return Duration.ofSeconds(Math.max(maxAge, 0));
+                    } catch (NumberFormatException e) {
+                        return Duration.ZERO;
+                    }
+                }
+            }
+        }
+
+        if (headers.getExpires() >= 0 && headers.getDate() >= 0) {
+            return Duration.ofMillis(Math.max(headers.getExpires() - headers.getDate(), 0));
+        }
+
+        return Duration.ZERO;
+    }
+
+    private static class CachedResponse {
+        private final HttpHeaders headers;
+        private final byte[] body;
+        private final ExchangeStrategies strategies;
+        private final Instant expiresAt;
+
+        CachedResponse(HttpHeaders headers, byte[] body, ExchangeStrategies strategies, Instant storedAt) {
+            this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+            this.body = body;
+            this.strategies = strategies;
+            this.expiresAt = storedAt.plus(freshnessLifetime(headers)).minus(age(headers));
+        }
+
+        HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        boolean isFresh(Instant now) {
+            return now.isBefore(expiresAt);
+        }
+
+        CachedResponse revalidated(HttpHeaders notModifiedHeaders, Instant now) {
+            HttpHeaders merged = new HttpHeaders();
+            merged.putAll(headers);
+            notModifiedHeaders.forEach((name, values) -> {
+                if (!name.equalsIgnoreCase(HttpHeaders.CONTENT_LENGTH)) {
+                    merged.put(name, values);
+                }
+            });
+            return new CachedResponse(merged, body, strategies, now);
+        }
+
+        ClientResponse toResponse(String cacheStatus) {
+            return ClientResponse.create(HttpStatus.OK, strategies)
+                    .headers(responseHeaders -> {
+                        responseHeaders.putAll(headers);
+                        responseHeaders.set(CACHE_STATUS_HEADER, cacheStatus);
+                    })
+                    .body(Flux.defer(() -> Flux.just(bufferFactory.wrap(body))))
+                    .build();
+        }
+
+        private static Duration age(HttpHeaders headers) {
+            try {
+                return Duration.ofSeconds(Long.parseLong(headers.getFirst("Age")));
+            } catch (NumberFormatException e) {
+                return Duration.ZERO;
+            }
+        }
+    }
+}
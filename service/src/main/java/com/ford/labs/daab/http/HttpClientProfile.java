@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.http;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Duration;
+
+@NoArgsConstructor
+@Getter @Setter
+public class HttpClientProfile {
+    /** Connections kept per upstream host, Reactor Netty pools each remote address separately */
+    int maxConnections = 50;
+    int pendingAcquireMaxCount = 100;
+    Duration pendingAcquireTimeout = Duration.ofSeconds(10);
+    Duration connectTimeout = Duration.ofSeconds(5);
+    Duration readTimeout = Duration.ofSeconds(30);
+    /** Time until the response headers arrive, zero disables it */
+    Duration responseTimeout = Duration.ofSeconds(30);
+    Duration maxIdleTime = Duration.ofSeconds(60);
+}
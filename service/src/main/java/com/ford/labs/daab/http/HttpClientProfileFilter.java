@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.http;
+
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static com.ford.labs.daab.http.HttpClientProperties.DEFAULT_PROFILE;
+
+/**
+ * Sends each request through the connection pool of the profile named in its {@link #PROFILE_ATTRIBUTE},
+ * falling back to the default profile, and fails it when the response does not start within the profile's
+ * response timeout.
+ */
+public class HttpClientProfileFilter implements ExchangeFilterFunction {
+    public static final String PROFILE_ATTRIBUTE = HttpClientProfileFilter.class.getName() + ".profile";
+
+    private final Map<String, HttpClientProfile> profiles;
+    private final Map<String, ExchangeFunction> exchanges;
+
+    public HttpClientProfileFilter(Map<String, HttpClientProfile> profiles, Map<String, ExchangeFunction> exchanges) {
+        this.profiles = profiles;
+        this.exchanges = exchanges;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        String name = request.attribute(PROFILE_ATTRIBUTE)
+                .map(Object::toString)
+                .filter(profiles::containsKey)
+                .orElse(DEFAULT_PROFILE);
+
+        Mono<ClientResponse> response = exchanges.getOrDefault(name, next).exchange(request);
+
+        return Optional.ofNullable(profiles.get(name))
+                .map(HttpClientProfile::getResponseTimeout)
+                .filter(timeout -> !timeout.isZero() && !timeout.isNegative())
+                .map(response::timeout)
+                .orElse(response);
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.http;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@NoArgsConstructor
+@Getter @Setter
+@ConfigurationProperties(prefix = "http.client")
+public class HttpClientProperties {
+    public static final String DEFAULT_PROFILE = "default";
+
+    Map<String, HttpClientProfile> profiles = new LinkedHashMap<>();
+
+    public Map<String, HttpClientProfile> resolveProfiles() {
+        Map<String, HttpClientProfile> resolved = new LinkedHashMap<>(profiles);
+        resolved.putIfAbsent(DEFAULT_PROFILE, new HttpClientProfile());
+        return resolved;
+    }
+}
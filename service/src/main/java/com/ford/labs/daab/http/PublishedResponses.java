@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.http;
+
+import org.springframework.http.HttpEntity;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks which events were last published from a response body, so an unchanged cached response only skips
+ * publishing while that event is still current. A failed request or publish forgets the key, and the next
+ * cache hit or revalidation rebuilds the event from the cached body.
+ */
+public class PublishedResponses {
+    private final Set<String> published = ConcurrentHashMap.newKeySet();
+
+    public boolean isAlreadyPublished(String key, HttpEntity<?> entity) {
+        return HttpCacheFilter.isUnchanged(entity) && published.contains(key);
+    }
+
+    public void recordPublishing(String key) {
+        published.add(key);
+    }
+
+    public void forget(String key) {
+        published.remove(key);
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.http;
+
+import com.ford.labs.daab.config.EventClock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lets concurrent identical GET requests (same url, headers and client profile, so the same credentials
+ * and connection pool) share one upstream exchange. Each caller gets its own copy of the buffered response. With a result TTL the
+ * response is also shared with identical requests made shortly after it completed, unless they ask
+ * for no-cache.
+ */
+@Component
+public class SingleFlightFilter implements ExchangeFilterFunction {
+    private static final DataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+    private final EventClock eventClock;
+    private final Duration resultTtl;
+    private final Map<String, Flight> flights = new ConcurrentHashMap<>();
+
+    public SingleFlightFilter(EventClock eventClock, @Value("${http.single-flight.result-ttl:0s}") Duration resultTtl) {
+        this.eventClock = eventClock;
+        this.resultTtl = resultTtl;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        if (request.method() != HttpMethod.GET) {
+            return next.exchange(request);
+        }
+
+        String key = flightKey(request);
+        boolean noCache = request.headers().getOrEmpty(HttpHeaders.CACHE_CONTROL).stream().anyMatch(value -> value.contains("no-cache"));
+
+        return Mono.defer(() -> {
+            Instant now = eventClock.now();
+            flights.values().removeIf(flight -> flight.isExpired(now));
+
+            return flights.compute(key, (ignored, flight) -> flight != null && flight.canJoin(now, noCache)
+                            ? flight
+                            : new Flight(key, next.exchange(request)))
+                    .getResponse()
+                    .map(SharedResponse::toResponse);
+        });
+    }
+
+    int getFlightCount() {
+        return flights.size();
+    }
+
+    private static String flightKey(ClientRequest request) {
+        Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        headers.putAll(request.headers());
+        return request.url() + " " + headers + " " + request.attribute(HttpClientProfileFilter.PROFILE_ATTRIBUTE).orElse("");
+    }
+
+    private class Flight {
+        private final Mono<SharedResponse> response;
+        private volatile Instant completedAt;
+
+        Flight(String key, Mono<ClientResponse> exchange) {
+            this.response = exchange
+                    .flatMap(SharedResponse::read)
+                    .doOnSuccess(shared -> complete(key))
+                    .doOnError(error -> flights.remove(key, this))
+                    .cache();
+        }
+
+        Mono<SharedResponse> getResponse() {
+            return response;
+        }
+
+        boolean canJoin(Instant now, boolean noCache) {
+            return completedAt == null || (!noCache && !isExpired(now));
+        }
+
+        boolean isExpired(Instant now) {
+            Instant completed = completedAt;
+            return completed != null && !now.isBefore(completed.plus(resultTtl));
+        }
+
+        private void complete(String key) {
+            if (resultTtl.isZero() || resultTtl.isNegative()) {
+                flights.remove(key, this);
+            } else {
+                completedAt = eventClock.now();
+            }
+        }
+    }
+
+    private static class SharedResponse {
+        private final HttpStatus status;
+        private final HttpHeaders headers;
+        private final byte[] body;
+        private final ExchangeStrategies strategies;
+
+        SharedResponse(HttpStatus status, HttpHeaders headers, byte[] body, ExchangeStrategies strategies) {
+            this.status = status;
+            this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+            this.body = body;
+            this.strategies = strategies;
+        }
+
+        static Mono<SharedResponse> read(ClientResponse response) {
+            return DataBufferUtils.join(response.body(BodyExtractors.toDataBuffers()))
+                    .map(buffer -> {
+                        byte[] body = new byte[buffer.readableByteCount()];
+                        buffer.read(body);
+                        DataBufferUtils.release(buffer);
+                        return body;
+                    })
+                    .defaultIfEmpty(new byte[0])
+                    .map(body -> new SharedResponse(response.statusCode(), response.headers().asHttpHeaders(), body, response.strategies()));
+        }
+
+        ClientResponse toResponse() {
+            return ClientResponse.create(status, strategies)
+                    .headers(responseHeaders -> responseHeaders.putAll(headers))
+                    .body(Flux.defer(() -> Flux.just(bufferFactory.wrap(body))))
+                    .build();
+        }
+    }
+}
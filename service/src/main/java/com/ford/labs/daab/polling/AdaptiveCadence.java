@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.polling;
+
+import com.ford.labs.daab.event.EventLevel;
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class AdaptiveCadence {
+    private final Duration fastInterval;
+    private final Duration interval;
+    private final Duration maxInterval;
+    private final int backoffAfter;
+    private final Set<EventLevel> urgentLevels;
+    private final Map<String, TargetState> states = new ConcurrentHashMap<>();
+
+    public AdaptiveCadence(Duration fastInterval, Duration interval, Duration maxInterval, int backoffAfter, Set<EventLevel> urgentLevels) {
+        this.fastInterval = fastInterval;
+        this.interval = interval;
+        this.maxInterval = maxInterval;
+        this.backoffAfter = backoffAfter;
+        this.urgentLevels = urgentLevels;
+    }
+
+    public void record(String key, EventLevel level, boolean changed) {
+        states.compute(key, (ignored, state) -> new TargetState(
+                level,
+                changed || state == null ? 0 : state.getUnchangedCycles() + 1
+        ));
+    }
+
+    public void recordUnchanged(String key) {
+        states.computeIfPresent(key, (ignored, state) -> new TargetState(state.getLevel(), state.getUnchangedCycles() + 1));
+    }
+
+    public Duration nextDelay(String key) {
+        TargetState state = states.get(key);
+        if (state == null) {
+            return interval;
+        }
+        if (urgentLevels.contains(state.getLevel())) {
+            return fastInterval;
+        }
+        if (state.getUnchangedCycles() < backoffAfter) {
+            return interval;
+        }
+
+        int doublings = Math.min(state.getUnchangedCycles() - backoffAfter + 1, 30);
+        Duration backedOff = interval.multipliedBy(1L << doublings);
+        return backedOff.compareTo(maxInterval) > 0 ? maxInterval : backedOff;
+    }
+
+    @Value
+    private static class TargetState {
+        EventLevel level;
+        int unchangedCycles;
+    }
+}
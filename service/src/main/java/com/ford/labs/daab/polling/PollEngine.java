@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.polling;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+
+@Service
+public class PollEngine {
+    private static final Logger log = org.slf4j.LoggerFactory.getLogger(PollEngine.class);
+
+    private MeterRegistry meterRegistry;
+    private Scheduler scheduler;
+
+    @Autowired
+    public PollEngine(MeterRegistry meterRegistry) {
+        this(meterRegistry, Schedulers.parallel());
+    }
+
+    PollEngine(MeterRegistry meterRegistry, Scheduler scheduler) {
+        this.meterRegistry = meterRegistry;
+        this.scheduler = scheduler;
+    }
+
+    public <T> Disposable register(PollSource<T> source) {
+        PollSchedule schedule = source.getSchedule();
+        Flux<Long> ticks = Flux.interval(Duration.ZERO, schedule.getMinInterval(), scheduler);
+        Map<Object, Long> nextDueTicks = new ConcurrentHashMap<>();
+
+        return withMissedTickPolicy(ticks, source)
+                .flatMap(tick -> Mono.delay(randomDelay(schedule.getJitter()), scheduler).then(pollDue(source, tick, nextDueTicks)), 1, 1)
+                .subscribe();
+    }
+
+    public <T> Mono<Void> pollOnce(PollSource<T> source) {
+        return Mono.defer(() -> pollTargets(source, source.getTargets(), target -> { }));
+    }
+
+    private <T> Mono<Void> pollDue(PollSource<T> source, long tick, Map<Object, Long> nextDueTicks) {
+        return Mono.defer(() -> {
+            List<T> targets = source.getTargets();
+            nextDueTicks.keySet().retainAll(targets.stream().map(source::getTargetKey).collect(toSet()));
+
+            List<T> dueTargets = targets.stream()
+                    .filter(target -> nextDueTicks.getOrDefault(source.getTargetKey(target), tick) <= tick)
+                    .collect(toList());
+
+            long tickMillis = source.getSchedule().getMinInterval().toMillis();
+            return pollTargets(source, dueTargets, target -> {
+                long delayMillis = source.getNextPollDelay(target).toMillis();
+                nextDueTicks.put(source.getTargetKey(target), tick + Math.max(1, (delayMillis + tickMillis - 1) / tickMillis));
+            });
+        });
+    }
+
+    private <T> Mono<Void> pollTargets(PollSource<T> source, List<T> targets, Consumer<T> onPolled) {
+        Timer.Sample cycle = Timer.start(meterRegistry);
+
+        return Flux.fromIterable(targets)
+                .groupBy(source::getPartition)
+                .flatMap(partition -> partition.flatMap(target -> pollTarget(source, target).doFinally(signal -> onPolled.accept(target)), source.getSchedule().getConcurrency()), Integer.MAX_VALUE)
+                .then()
+                .doOnTerminate(() -> recordCycle(source, targets, cycle))
+                .doOnCancel(() -> recordCycle(source, targets, cycle));
+    }
+
+    private <T> void recordCycle(PollSource<T> source, List<T> targets, Timer.Sample cycle) {
+        cycle.stop(meterRegistry.timer("poll.cycle.duration", "source", source.getName()));
+        meterRegistry.summary("poll.cycle.targets", "source", source.getName())
+                .record(targets.stream().mapToInt(source::getTargetSize).sum());
+    }
+
+    private <T> Mono<Void> pollTarget(PollSource<T> source, T target) {
+        return Mono.defer(() -> source.poll(target))
+                .then()
+                .onErrorResume(error -> {
+                    log.warn(String.format("Polling [%s] target %s failed: %s", source.getName(), target, error.getMessage()));
+                    return Mono.empty();
+                });
+    }
+
+    private Flux<Long> withMissedTickPolicy(Flux<Long> ticks, PollSource<?> source) {
+        if (source.getSchedule().getMissedTickPolicy() == MissedTickPolicy.CATCH_UP) {
+            return ticks.onBackpressureLatest();
+        }
+
+        return ticks.onBackpressureDrop(tick -> log.debug(String.format("Skipping tick for [%s], previous poll still running", source.getName())));
+    }
+
+    private static Duration randomDelay(Duration jitter) {
+        return jitter.isZero()
+                ? Duration.ZERO
+                : Duration.ofMillis(ThreadLocalRandom.current().nextLong(jitter.toMillis() + 1));
+    }
+}
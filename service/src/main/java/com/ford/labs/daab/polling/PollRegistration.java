@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.polling;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+
+@Component
+@Profile("!test")
+public class PollRegistration {
+    private PollEngine pollEngine;
+    private List<PollSource<?>> sources;
+    private Disposable.Composite registrations = Disposables.composite();
+
+    public PollRegistration(PollEngine pollEngine, List<PollSource<?>> sources) {
+        this.pollEngine = pollEngine;
+        this.sources = sources;
+    }
+
+    @PostConstruct
+    public void register() {
+        sources.forEach(source -> registrations.add(pollEngine.register(source)));
+    }
+
+    @PreDestroy
+    public void unregister() {
+        registrations.dispose();
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.polling;
+
+import lombok.Value;
+import lombok.With;
+
+import java.time.Duration;
+
+@Value
+@With
+public class PollSchedule {
+    Duration interval;
+    Duration minInterval;
+    Duration jitter;
+    int concurrency;
+    MissedTickPolicy missedTickPolicy;
+
+    public static PollSchedule every(Duration interval) {
+        return new PollSchedule(interval, interval, Duration.ZERO, 1, MissedTickPolicy.SKIP);
+    }
+}
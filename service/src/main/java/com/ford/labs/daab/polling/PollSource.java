@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.polling;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+public interface PollSource<T> {
+    String getName();
+
+    PollSchedule getSchedule();
+
+    List<T> getTargets();
+
+    Mono<?> poll(T target);
+
+    default String getPartition(T target) {
+        return "";
+    }
+
+    default Object getTargetKey(T target) {
+        return target;
+    }
+
+    default int getTargetSize(T target) {
+        return 1;
+    }
+
+    default Duration getNextPollDelay(T target) {
+        return getSchedule().getInterval();
+    }
+}
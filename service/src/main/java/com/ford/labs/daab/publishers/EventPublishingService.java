@@ -16,95 +16,128 @@
 
 package com.ford.labs.daab.publishers;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ford.labs.daab.cache.EventCache;
+import com.ford.labs.daab.cache.EventRecord;
+import com.ford.labs.daab.cache.EventStream;
 import com.ford.labs.daab.event.Event;
+import com.ford.labs.daab.history.EventHistoryService;
 import org.slf4j.Logger;
-import org.springframework.data.redis.core.ReactiveHashOperations;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisElementReader;
+import org.springframework.data.redis.serializer.RedisElementWriter;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.data.redis.util.ByteUtils.getBytes;
+
 @Service
 public class EventPublishingService {
     private static final Logger log = org.slf4j.LoggerFactory.getLogger(EventPublishingService.class);
 
-    private ReactiveRedisTemplate<String, Event> eventTemplate;
+    private static final long UNCHANGED = -1L;
+    private static final RedisElementWriter<byte[]> ARGUMENT_WRITER = RedisElementWriter.from(RedisSerializer.byteArray());
+    private static final RedisElementReader<Long> RESULT_READER = RedisElementReader.from(new GenericToStringSerializer<>(Long.class));
 
-    public EventPublishingService(ReactiveRedisTemplate<String, Event> eventTemplate) {
+    private ReactiveRedisTemplate<String, Event> eventTemplate;
+    private RedisSerializationContext<String, Event> eventSerializationContext;
+    private RedisScript<Long> publishEventScript;
+    private RedisScript<Long> deleteEventScript;
+    private EventCache eventCache;
+    private long historyMaxLength;
+    private Duration historyMaxAge;
+
+    public EventPublishingService(
+            ReactiveRedisTemplate<String, Event> eventTemplate,
+            RedisSerializationContext<String, Event> eventSerializationContext,
+            @Qualifier("publishEventScript") RedisScript<Long> publishEventScript,
+            @Qualifier("deleteEventScript") RedisScript<Long> deleteEventScript,
+            EventCache eventCache,
+            @Value("${event.history.max-length:1000}") long historyMaxLength,
+            @Value("${event.history.max-age:0}") Duration historyMaxAge
+    ) {
         this.eventTemplate = eventTemplate;
+        this.eventSerializationContext = eventSerializationContext;
+        this.publishEventScript = publishEventScript;
+        this.deleteEventScript = deleteEventScript;
+        this.eventCache = eventCache;
+        this.historyMaxLength = historyMaxLength;
+        this.historyMaxAge = historyMaxAge;
     }
 
     public Mono<Long> publish(Event event) {
-        return eventIsPresentInCache(event.getId())
-                .flatMap(eventIsPresent -> {
-                    if (eventIsPresent) {
-                        return getCachedEvent(event.getId())
-                                .map(existingEvent -> existingEvent.equals(event))
-                                .flatMap(eventIsUnchanged -> {
-                                    if (eventIsUnchanged) {
-                                        log.info(String.format("com.ford.labs.daab.event.Event [%s] is unchanged: %s", event.getId(), eventToString(event)));
-                                        return Mono.empty();
-                                    } else {
-                                        return saveAndPublishEvent(event);
-                                    }
-                                });
-                    } else {
-                        return saveAndPublishEvent(event);
+        byte[] serializedEvent = getBytes(eventSerializationContext.getValueSerializationPair().write(event));
+
+        return eventTemplate.execute(
+                publishEventScript,
+                List.of("event", "event-version", EventHistoryService.historyKey(event.getId())),
+                List.of(
+                        serializeHashKey(event.getId()),
+                        serializedEvent,
+                        serializeChannel("event." + event.getId()),
+                        serializeNumber(historyMaxLength),
+                        serializeNumber(oldestHistoryTimestamp())
+                ),
+                ARGUMENT_WRITER,
+                RESULT_READER
+        )
+                .next()
+                .filter(version -> {
+                    if (version == UNCHANGED) {
+                        log.info(String.format("com.ford.labs.daab.event.Event [%s] is unchanged: %s", event.getId(), new String(serializedEvent, UTF_8)));
+                        return false;
                     }
-                });
+
+                    log.info(String.format("Published com.ford.labs.daab.event.Event: [%s] version %d: %s", event.getId(), version, new String(serializedEvent, UTF_8)));
+                    return true;
+                })
+                .doOnNext(version -> eventCache.put(event, EventRecord.withVersion(serializedEvent, version)));
     }
 
     public Mono<Event> getCachedEventOrEmpty(String id) {
-        return eventIsPresentInCache(id)
-                .flatMap(eventIsPresent -> eventIsPresent
-                        ? getCachedEvent(id)
-                        : Mono.empty()
-                );
+        return eventCache.get(id)
+                .map(EventRecord::getEvent);
     }
 
     public Mono<Long> delete(String id) {
-        return eventIsPresentInCache(id)
-                .filter(t -> t)
-                .flatMap(isPresent -> getEventHashOperations().remove("event", id));
-    }
-
-    private Mono<Boolean> eventIsPresentInCache(String id) {
-        return getEventHashOperations()
-                .hasKey("event", id);
-    }
-
-    private Mono<Event> getCachedEvent(String id) {
-        return getEventHashOperations()
-                .get("event", id);
-    }
-
-    private Mono<Long> saveAndPublishEvent(Event event) {
-        log.info(String.format("Publishing com.ford.labs.daab.event.Event: [%s]: %s", event.getId(), eventToString(event)));
-
-        return saveEventToCache(event)
-                .then(publishEventToQueue(event));
+        return eventTemplate.execute(
+                deleteEventScript,
+                List.of("event", "event-version"),
+                List.of(
+                        serializeHashKey(id),
+                        EventRecord.tombstoneJson(id),
+                        serializeChannel(EventStream.DELETED_CHANNEL_PREFIX + id)
+                ),
+                ARGUMENT_WRITER,
+                RESULT_READER
+        )
+                .next()
+                .filter(version -> version > 0)
+                .doOnNext(version -> eventCache.evict(EventRecord.tombstone(id, version)));
     }
 
-    private String eventToString(Event event) {
-        try {
-            return new ObjectMapper().writeValueAsString(event);
-        } catch (JsonProcessingException e) {
-            e.printStackTrace();
-            return "";
-        }
+    private byte[] serializeHashKey(String id) {
+        return getBytes(eventSerializationContext.<String>getHashKeySerializationPair().write(id));
     }
 
-    private Mono<Boolean> saveEventToCache(Event event) {
-        return getEventHashOperations()
-                .put("event", event.getId(), event);
+    private byte[] serializeChannel(String channel) {
+        return getBytes(eventSerializationContext.getStringSerializationPair().write(channel));
     }
 
-    private Mono<Long> publishEventToQueue(Event event) {
-        return eventTemplate.convertAndSend("event." + event.getId(), event);
+    private long oldestHistoryTimestamp() {
+        return historyMaxAge.isZero() ? 0 : System.currentTimeMillis() - historyMaxAge.toMillis();
     }
 
-    private ReactiveHashOperations<String, String, Event> getEventHashOperations() {
-        return eventTemplate.opsForHash(eventTemplate.getSerializationContext());
+    private static byte[] serializeNumber(long number) {
+        return String.valueOf(number).getBytes(UTF_8);
     }
 }
@@ -20,53 +20,92 @@ import com.ford.labs.daab.config.event.properties.EventProperties;
 import com.ford.labs.daab.config.event.properties.health.HealthApplication;
 import com.ford.labs.daab.config.event.properties.health.HealthProperties;
 import com.ford.labs.daab.event.EventLevel;
+import com.ford.labs.daab.event.FigureEvent;
 import com.ford.labs.daab.event.HealthEvent;
 import com.ford.labs.daab.event.StatusEvent;
+import com.ford.labs.daab.http.CircuitOpenException;
+import com.ford.labs.daab.polling.AdaptiveCadence;
+import com.ford.labs.daab.polling.PollSchedule;
+import com.ford.labs.daab.polling.PollSource;
 import com.ford.labs.daab.publishers.EventPublishingService;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.ClientResponse;
-import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 import static java.util.Collections.emptyList;
-import static java.util.List.of;
 
 @Service
-public class GenericHealthPublisher {
+public class GenericHealthPublisher implements PollSource<HealthApplication> {
+    private static final PollSchedule SCHEDULE = PollSchedule.every(Duration.ofSeconds(30))
+            .withMinInterval(Duration.ofSeconds(10))
+            .withJitter(Duration.ofSeconds(5))
+            .withConcurrency(8);
+
     private EventPublishingService eventPublishingService;
-    private final WebClient client;
+    private final HealthProbeClient probeClient;
     private EventProperties eventProperties;
+    private final AdaptiveCadence cadence = new AdaptiveCadence(
+            SCHEDULE.getMinInterval(),
+            SCHEDULE.getInterval(),
+            SCHEDULE.getInterval(),
+            Integer.MAX_VALUE,
+            Set.of(EventLevel.ERROR)
+    );
 
     public GenericHealthPublisher(
             EventPublishingService eventPublishingService,
-            WebClient client,
+            HealthProbeClient probeClient,
             EventProperties eventProperties
     ) {
         this.eventPublishingService = eventPublishingService;
-        this.client = client;
+        this.probeClient = probeClient;
         this.eventProperties = eventProperties;
     }
 
+    @Override
+    public String getName() {
+        return "health";
+    }
 
-    @Scheduled(fixedRate = 30000)
-    public void pollHealth() {
-        for (HealthApplication application : getApplications()) {
-            makeRequest(application)
-                    .map(isUp -> buildHealthEvent(application, isUp))
-                    .flatMap(this::eventOrCachedIfStatusIsSame)
-                    .flatMap(eventPublishingService::publish)
-                    .block();
-        }
+    @Override
+    public PollSchedule getSchedule() {
+        return SCHEDULE;
+    }
+
+    @Override
+    public List<HealthApplication> getTargets() {
+        return getApplications();
+    }
+
+    @Override
+    public String getPartition(HealthApplication application) {
+        return HealthProbeClient.getPartition(application);
+    }
+
+    @Override
+    public Duration getNextPollDelay(HealthApplication application) {
+        return cadence.nextDelay(application.getId());
+    }
+
+    @Override
+    public Mono<Long> poll(HealthApplication application) {
+        return makeRequest(application)
+                .onErrorResume(error -> !(error instanceof CircuitOpenException), error -> Mono.just(false))
+                .doOnError(error -> cadence.record(application.getId(), EventLevel.ERROR, false))
+                .map(isUp -> buildHealthEvent(application, isUp))
+                .doOnNext(event -> cadence.record(application.getId(), event.getLevel(), false))
+                .onErrorResume(CircuitOpenException.class, error -> Mono.just(buildUnknownEvent(application)))
+                .flatMap(this::eventOrCachedIfStatusIsSame)
+                .flatMap(eventPublishingService::publish)
+                .then(Mono.defer(() -> publishLatencyFigure(application)));
     }
 
     private List<HealthApplication> getApplications() {
@@ -77,19 +116,27 @@ public class GenericHealthPublisher {
     }
 
     private Mono<Boolean> makeRequest(HealthApplication application) {
-        return client.get()
-                .uri(application.getUrl())
-                .headers(headers -> this.buildBasicAuthHeader(application, headers))
-                .exchange()
-                .map(ClientResponse::statusCode)
-                .map(HttpStatus::is2xxSuccessful);
+        return probeClient.check(application, getClientProfile(application));
+    }
+
+    private String getClientProfile(HealthApplication application) {
+        return Optional.ofNullable(application.getClientProfile())
+                .or(() -> Optional.ofNullable(eventProperties.getHealth()).map(HealthProperties::getClientProfile))
+                .orElse(getName());
     }
 
-    private void buildBasicAuthHeader(HealthApplication application, HttpHeaders headers) {
-        if(application.getUsername() != null && application.getPassword() != null) {
-            var rawBasicAuthHeader = String.format("%s:%s", application.getUsername(), application.getPassword());
-            headers.put("Authorization", of(String.format("Basic %s", Base64.getEncoder().encodeToString(rawBasicAuthHeader.getBytes()))));
+    private Mono<Long> publishLatencyFigure(HealthApplication application) {
+        if (!application.isLatencyFigure() || probeClient.getProbeCount(application.getId()) == 0) {
+            return Mono.empty();
         }
+
+        Map<Double, Double> percentiles = probeClient.getLatencyPercentiles(application.getId());
+        var event = new FigureEvent();
+        event.setId("health." + application.getId() + ".latency");
+        event.setName(application.getName() + " Latency");
+        event.setValue(String.format("%.0f ms", percentiles.getOrDefault(0.5, 0.0)));
+        event.setSubtext(String.format("p95 %.0f ms", percentiles.getOrDefault(0.95, 0.0)));
+        return eventPublishingService.publish(event);
     }
 
     private StatusEvent buildHealthEvent(HealthApplication application, boolean isUp) {
@@ -104,6 +151,15 @@ public class GenericHealthPublisher {
         return event;
     }
 
+    private StatusEvent buildUnknownEvent(HealthApplication application) {
+        var event = new StatusEvent();
+        event.setId("health." + application.getId());
+        event.setName(application.getName());
+        event.setLevel(EventLevel.UNKNOWN);
+        event.setStatusText("Unknown");
+        return event;
+    }
+
     private Mono<StatusEvent> eventOrCachedIfStatusIsSame(StatusEvent newEvent) {
         return eventPublishingService.getCachedEventOrEmpty(newEvent.getId())
                 .cast(StatusEvent.class)
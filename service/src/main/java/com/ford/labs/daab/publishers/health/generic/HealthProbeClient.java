@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.publishers.health.generic;
+
+import com.ford.labs.daab.config.event.properties.health.HealthApplication;
+import com.ford.labs.daab.config.event.properties.health.HealthProbeType;
+import com.ford.labs.daab.http.HttpClientProfileFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
+import org.slf4j.Logger;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.tcp.TcpClient;
+
+import javax.net.ssl.SSLException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Checks an application's health endpoint and always releases the response body, so the
+ * connection goes back to its host's pool whatever the endpoint returns. TCP and TLS probes
+ * bypass the WebClient and open a short-lived unpooled connection that is closed once it is
+ * established.
+ */
+@Component
+public class HealthProbeClient {
+    private static final Logger log = getLogger(HealthProbeClient.class);
+    private static final Duration DEFAULT_SOCKET_TIMEOUT = Duration.ofSeconds(5);
+
+    private final WebClient client;
+    private final MeterRegistry meterRegistry;
+    private final TcpClient tcpClient = TcpClient.newConnection();
+    private final SslContext sslContext;
+
+    public HealthProbeClient(WebClient client, MeterRegistry meterRegistry) throws SSLException {
+        this.client = client;
+        this.meterRegistry = meterRegistry;
+        this.sslContext = SslContextBuilder
+                .forClient()
+                .trustManager(InsecureTrustManagerFactory.INSTANCE)
+                .build();
+    }
+
+    public Mono<Boolean> check(HealthApplication application, String clientProfile) {
+        switch (getProbeType(application)) {
+            case TCP:
+                return connect(application, false);
+            case TLS:
+                return connect(application, true);
+            default:
+                return probe(application, clientProfile).map(HttpStatus::is2xxSuccessful);
+        }
+    }
+
+    public Mono<HttpStatus> probe(HealthApplication application, String clientProfile) {
+        Mono<HttpStatus> probe = Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+
+            return client.method(getMethod(application))
+                    .uri(application.getUrl())
+                    .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                    .headers(headers -> buildBasicAuthHeader(application, headers))
+                    .attribute(HttpClientProfileFilter.PROFILE_ATTRIBUTE, clientProfile)
+                    .exchange()
+                    .flatMap(response -> response.releaseBody().thenReturn(response.statusCode()))
+                    .doOnNext(status -> sample.stop(latency(application.getId())));
+        });
+
+        return Optional.ofNullable(application.getTimeout())
+                .filter(timeout -> !timeout.isZero() && !timeout.isNegative())
+                .map(probe::timeout)
+                .orElse(probe);
+    }
+
+    private Mono<Boolean> connect(HealthApplication application, boolean secure) {
+        URI address = toAddress(application.getUrl());
+        Duration timeout = Optional.ofNullable(application.getTimeout())
+                .filter(value -> !value.isZero() && !value.isNegative())
+                .orElse(DEFAULT_SOCKET_TIMEOUT);
+
+        TcpClient connection = tcpClient
+                .host(address.getHost())
+                .port(getPort(address, secure))
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) timeout.toMillis());
+        TcpClient probe = secure
+                ? connection.secure(spec -> spec.sslContext(sslContext).handshakeTimeout(timeout))
+                : connection;
+
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+
+            return probe.connect()
+                    .doOnNext(connected -> {
+                        sample.stop(latency(application.getId()));
+                        connected.dispose();
+                    })
+                    .thenReturn(true)
+                    .timeout(timeout)
+                    .onErrorResume(error -> {
+                        log.debug(String.format("%s probe of [%s] failed: %s", secure ? "TLS" : "TCP", application.getUrl(), error.getMessage()));
+                        return Mono.just(false);
+                    });
+        });
+    }
+
+    /** Recent response time percentiles in milliseconds, keyed by percentile */
+    public Map<Double, Double> getLatencyPercentiles(String applicationId) {
+        Map<Double, Double> percentiles = new TreeMap<>();
+        for (ValueAtPercentile value : latency(applicationId).takeSnapshot().percentileValues()) {
+            percentiles.put(value.percentile(), value.value(TimeUnit.MILLISECONDS));
+        }
+        return percentiles;
+    }
+
+    public long getProbeCount(String applicationId) {
+        return latency(applicationId).count();
+    }
+
+    private Timer latency(String applicationId) {
+        return Timer.builder("health.probe.latency")
+                .tag("application", applicationId)
+                .publishPercentiles(0.5, 0.95)
+                .distributionStatisticExpiry(Duration.ofMinutes(10))
+                .register(meterRegistry);
+    }
+
+    static String getPartition(HealthApplication application) {
+        HealthProbeType type = getProbeType(application);
+        return type == HealthProbeType.HTTP
+                ? ""
+                : type + ":" + toAddress(application.getUrl()).getHost();
+    }
+
+    private static HealthProbeType getProbeType(HealthApplication application) {
+        return Optional.ofNullable(application.getProbe()).orElse(HealthProbeType.HTTP);
+    }
+
+    private static URI toAddress(String url) {
+        return URI.create(url.contains("://") ? url : "tcp://" + url);
+    }
+
+    private static int getPort(URI address, boolean secure) {
+        if (address.getPort() != -1) {
+            return address.getPort();
+        }
+        return secure || "https".equalsIgnoreCase(address.getScheme()) ? 443 : 80;
+    }
+
+    private static HttpMethod getMethod(HealthApplication application) {
+        return Optional.ofNullable(application.getMethod())
+                .map(method -> HttpMethod.resolve(method.toUpperCase()))
+                .orElse(HttpMethod.GET);
+    }
+
+    private static void buildBasicAuthHeader(HealthApplication application, HttpHeaders headers) {
+        if (application.getUsername() != null && application.getPassword() != null) {
+            var rawBasicAuthHeader = String.format("%s:%s", application.getUsername(), application.getPassword());
+            headers.set(HttpHeaders.AUTHORIZATION, String.format("Basic %s", Base64.getEncoder().encodeToString(rawBasicAuthHeader.getBytes(UTF_8))));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.publishers.job.jenkins;
+
+import com.ford.labs.daab.config.event.properties.job.JenkinsJob;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class JenkinsJobBatch {
+    String folderUrl;
+    List<JenkinsJob> jobs;
+
+    public static JenkinsJobBatch of(JenkinsJob job) {
+        return new JenkinsJobBatch(null, List.of(job));
+    }
+
+    public boolean isFolder() {
+        return folderUrl != null;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.publishers.job.jenkins;
+
+import com.ford.labs.daab.config.event.properties.EventProperties;
+import com.ford.labs.daab.config.event.properties.job.JenkinsFolder;
+import com.ford.labs.daab.config.event.properties.job.JenkinsJob;
+import com.ford.labs.daab.config.event.properties.job.JenkinsJobProperties;
+import com.ford.labs.daab.config.event.properties.job.JobProperties;
+import com.ford.labs.daab.http.HttpClientProfileFilter;
+import com.ford.labs.daab.polling.PollSchedule;
+import com.ford.labs.daab.polling.PollSource;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+
+@Service
+public class JenkinsJobDiscovery implements PollSource<JenkinsFolder> {
+    private final WebClient client;
+    private final EventProperties eventProperties;
+    private final Map<String, List<JenkinsJob>> discoveredJobs = new ConcurrentHashMap<>();
+
+    public JenkinsJobDiscovery(WebClient client, EventProperties eventProperties) {
+        this.client = client;
+        this.eventProperties = eventProperties;
+    }
+
+    @Override
+    public String getName() {
+        return "jenkins-discovery";
+    }
+
+    @Override
+    public PollSchedule getSchedule() {
+        Duration interval = getJenkinsJobProperties()
+                .map(JenkinsJobProperties::getDiscoveryInterval)
+                .orElse(Duration.ofMinutes(5));
+
+        return PollSchedule.every(interval)
+                .withJitter(interval.dividedBy(10));
+    }
+
+    @Override
+    public List<JenkinsFolder> getTargets() {
+        List<JenkinsFolder> folders = getFolders();
+        discoveredJobs.keySet().retainAll(getFolderIds(folders));
+        return folders;
+    }
+
+    @Override
+    public Mono<List<JenkinsJob>> poll(JenkinsFolder folder) {
+        return makeRequest(folder)
+                .map(response -> collectJobs(response.getJobs(), folder.getId(), folder.getName()))
+                .doOnNext(jobs -> discoveredJobs.put(folder.getId(), jobs));
+    }
+
+    public List<JenkinsJob> getDiscoveredJobs() {
+        Set<String> folderIds = getFolderIds(getFolders());
+        return discoveredJobs.entrySet().stream()
+                .filter(folder -> folderIds.contains(folder.getKey()))
+                .flatMap(folder -> folder.getValue().stream())
+                .collect(toList());
+    }
+
+    private Mono<JenkinsDiscoveryResponse> makeRequest(JenkinsFolder folder) {
+        String folderUrl = folder.getUrl().replaceFirst("/api/json$", "").replaceFirst("/$", "");
+
+        return client.get()
+                .uri(folderUrl + "/api/json?tree={tree}", buildTree(Math.max(folder.getDepth(), 1)))
+                .header("Authorization", JenkinsJobPublisher.buildBasicAuthHeader(eventProperties))
+                .attribute(HttpClientProfileFilter.PROFILE_ATTRIBUTE, eventProperties.getJob().getJenkins().getClientProfile())
+                .retrieve()
+                .bodyToMono(JenkinsDiscoveryResponse.class);
+    }
+
+    private List<JenkinsJob> collectJobs(List<JenkinsDiscoveryResponse.Item> items, String id, String name) {
+        List<JenkinsJob> jobs = new ArrayList<>();
+        for (JenkinsDiscoveryResponse.Item item : Optional.ofNullable(items).orElse(emptyList())) {
+            if (item.getName() == null || item.getUrl() == null) {
+                continue;
+            }
+
+            String itemId = id + "." + item.getName();
+            String itemName = name + " / " + item.getName();
+            if (item.getColor() != null) {
+                jobs.add(new JenkinsJob(itemId, itemName, item.getUrl()));
+            }
+            jobs.addAll(collectJobs(item.getJobs(), itemId, itemName));
+        }
+        return jobs;
+    }
+
+    private List<JenkinsFolder> getFolders() {
+        return getJenkinsJobProperties()
+                .map(JenkinsJobProperties::getFolders)
+                .orElse(emptyList());
+    }
+
+    private static Set<String> getFolderIds(List<JenkinsFolder> folders) {
+        return folders.stream()
+                .map(JenkinsFolder::getId)
+                .collect(toSet());
+    }
+
+    private Optional<JenkinsJobProperties> getJenkinsJobProperties() {
+        return Optional.of(this.eventProperties)
+                .map(EventProperties::getJob)
+                .map(JobProperties::getJenkins);
+    }
+
+    static String buildTree(int depth) {
+        String children = depth > 1 ? "," + buildTree(depth - 1) : "";
+        return "jobs[name,url,color" + children + "]";
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.ford.labs.daab.publishers.job.jenkins;
 
+import com.ford.labs.daab.config.EventClock;
 import com.ford.labs.daab.config.event.properties.EventProperties;
 import com.ford.labs.daab.config.event.properties.job.JenkinsJob;
 import com.ford.labs.daab.config.event.properties.job.JenkinsJobProperties;
@@ -23,76 +24,323 @@ import com.ford.labs.daab.config.event.properties.job.JobProperties;
 import com.ford.labs.daab.event.EventLevel;
 import com.ford.labs.daab.event.JobEvent;
 import com.ford.labs.daab.event.StatusEvent;
+import com.ford.labs.daab.http.HttpCacheFilter;
+import com.ford.labs.daab.http.HttpClientProfileFilter;
+import com.ford.labs.daab.http.PublishedResponses;
+import com.ford.labs.daab.polling.AdaptiveCadence;
+import com.ford.labs.daab.polling.PollSchedule;
+import com.ford.labs.daab.polling.PollSource;
 import com.ford.labs.daab.publishers.EventPublishingService;
-import org.springframework.scheduling.annotation.Scheduled;
+import lombok.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Base64Utils;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriUtils;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.net.URI;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
 
 @Service
-public class JenkinsJobPublisher {
+public class JenkinsJobPublisher implements PollSource<JenkinsJobBatch> {
+    private static final PollSchedule SCHEDULE = PollSchedule.every(Duration.ofSeconds(30))
+            .withMinInterval(Duration.ofSeconds(10))
+            .withJitter(Duration.ofSeconds(5));
+    private static final String FOLDER_TREE = "jobs[name,color,lastBuild[number,url,timestamp]]";
+
     private final EventPublishingService eventPublishingService;
     private final WebClient client;
     private final EventProperties eventProperties;
+    private final JenkinsJobDiscovery jenkinsJobDiscovery;
+    private final EventClock eventClock;
+    private final Map<String, BuildTime> lastBuildTimes = new ConcurrentHashMap<>();
+    private final Map<String, Instant> lastNotified = new ConcurrentHashMap<>();
+    private final Map<String, Instant> lastPolled = new ConcurrentHashMap<>();
+    private final PublishedResponses publishedResponses = new PublishedResponses();
+    private final AdaptiveCadence cadence = new AdaptiveCadence(
+            SCHEDULE.getMinInterval(),
+            SCHEDULE.getInterval(),
+            Duration.ofMinutes(5),
+            4,
+            Set.of(EventLevel.IN_PROGRESS)
+    );
 
     public JenkinsJobPublisher(
             EventPublishingService eventPublishingService,
             WebClient client,
-            EventProperties eventProperties) {
+            EventProperties eventProperties,
+            JenkinsJobDiscovery jenkinsJobDiscovery,
+            EventClock eventClock) {
         this.eventPublishingService = eventPublishingService;
         this.client = client;
         this.eventProperties = eventProperties;
+        this.jenkinsJobDiscovery = jenkinsJobDiscovery;
+        this.eventClock = eventClock;
+    }
+
+    @Override
+    public String getName() {
+        return "jenkins";
+    }
+
+    @Override
+    public PollSchedule getSchedule() {
+        return SCHEDULE.withConcurrency(Optional.of(this.eventProperties)
+                .map(EventProperties::getJob)
+                .map(JobProperties::getJenkins)
+                .map(JenkinsJobProperties::getMaxInFlightPerHost)
+                .orElse(1));
+    }
+
+    @Override
+    public List<JenkinsJobBatch> getTargets() {
+        Instant now = eventClock.now();
+        List<JenkinsJob> configuredJobs = selectDueJobs(getJenkinsJobs(), now);
+        List<JenkinsJob> discoveredJobs = selectDueJobs(jenkinsJobDiscovery.getDiscoveredJobs(), now);
+
+        List<JenkinsJobBatch> batches = new ArrayList<>();
+        if (isBatched()) {
+            batches.addAll(batchByFolder(configuredJobs));
+        } else {
+            configuredJobs.stream()
+                    .map(JenkinsJobBatch::of)
+                    .forEach(batches::add);
+        }
+        batches.addAll(batchByFolder(discoveredJobs));
+        return batches;
+    }
+
+    public Optional<JenkinsJob> findJob(String jobUrl, String relativeJobUrl) {
+        List<JenkinsJob> jobs = new ArrayList<>(getJenkinsJobs());
+        jobs.addAll(jenkinsJobDiscovery.getDiscoveredJobs());
+
+        Optional<String> normalizedJobUrl = Optional.ofNullable(jobUrl).map(JenkinsJobPublisher::normalizeUrl);
+        Optional<String> normalizedRelativeJobUrl = Optional.ofNullable(relativeJobUrl).map(url -> "/" + normalizeUrl(url));
+
+        return jobs.stream()
+                .filter(job -> job.getUrl() != null)
+                .filter(job -> normalizedJobUrl.map(normalizeUrl(job.getUrl())::equals).orElse(false))
+                .findFirst()
+                .or(() -> jobs.stream()
+                        .filter(job -> job.getUrl() != null)
+                        .filter(job -> normalizedRelativeJobUrl.map(normalizeUrl(job.getUrl())::endsWith).orElse(false))
+                        .findFirst());
+    }
+
+    public void recordNotification(JenkinsJob job) {
+        lastNotified.put(job.getId(), eventClock.now());
+    }
+
+    private List<JenkinsJob> selectDueJobs(List<JenkinsJob> jobs, Instant now) {
+        if (jobs.isEmpty()) {
+            return jobs;
+        }
+
+        JenkinsJobProperties properties = eventProperties.getJob().getJenkins();
+        List<JenkinsJob> dueJobs = new ArrayList<>();
+        for (JenkinsJob job : jobs) {
+            Instant notified = lastNotified.get(job.getId());
+            Instant polled = lastPolled.get(job.getId());
+            boolean pushed = notified != null && notified.plus(properties.getNotificationExpiry()).isAfter(now);
+            if (!pushed || polled == null || !polled.plus(properties.getReconcileInterval()).isAfter(now)) {
+                dueJobs.add(job);
+            }
+        }
+        return dueJobs;
+    }
+
+    private List<JenkinsJobBatch> batchByFolder(List<JenkinsJob> jobs) {
+        List<JenkinsJobBatch> batches = new ArrayList<>();
+        Map<String, List<JenkinsJob>> jobsByFolder = new LinkedHashMap<>();
+        for (JenkinsJob job : jobs) {
+            Optional<String> folderUrl = getFolderUrl(job);
+            if (folderUrl.isPresent()) {
+                jobsByFolder.computeIfAbsent(folderUrl.get(), folder -> new ArrayList<>()).add(job);
+            } else {
+                batches.add(JenkinsJobBatch.of(job));
+            }
+        }
+        jobsByFolder.forEach((folderUrl, folderJobs) -> batches.add(new JenkinsJobBatch(folderUrl, folderJobs)));
+        return batches;
+    }
+
+    @Override
+    public String getPartition(JenkinsJobBatch batch) {
+        String url = batch.isFolder() ? batch.getFolderUrl() : batch.getJobs().get(0).getUrl();
+        if (url == null) {
+            return "";
+        }
+
+        try {
+            return Optional.ofNullable(URI.create(url).getAuthority()).orElse("");
+        } catch (IllegalArgumentException e) {
+            return "";
+        }
+    }
+
+    @Override
+    public Object getTargetKey(JenkinsJobBatch batch) {
+        return batch.isFolder() ? "folder:" + batch.getFolderUrl() : "job:" + batch.getJobs().get(0).getId();
+    }
+
+    @Override
+    public int getTargetSize(JenkinsJobBatch batch) {
+        return batch.getJobs().size();
+    }
+
+    @Override
+    public Duration getNextPollDelay(JenkinsJobBatch batch) {
+        return batch.getJobs().stream()
+                .map(job -> cadence.nextDelay(job.getId()))
+                .min(Duration::compareTo)
+                .orElse(SCHEDULE.getInterval());
+    }
+
+    @Override
+    public Mono<Void> poll(JenkinsJobBatch batch) {
+        if (batch.isFolder()) {
+            return pollFolder(batch);
+        }
+
+        return Flux.fromIterable(batch.getJobs())
+                .concatMap(this::pollJob)
+                .then();
+    }
+
+    private Mono<Long> pollJob(JenkinsJob job) {
+        return makeRequest(job)
+                .doOnNext(entity -> recordPolled(entity, List.of(job)))
+                .filter(entity -> !publishedResponses.isAlreadyPublished(job.getId(), entity))
+                .map(HttpEntity::getBody)
+                .flatMap(response -> buildJenkinsStatusEvent(job, response))
+                .doOnNext(event -> publishedResponses.recordPublishing(job.getId()))
+                .onErrorResume(error -> {
+                    publishedResponses.forget(job.getId());
+                    return buildUnknownStatusEvent(job);
+                })
+                .flatMap(event -> publish(job, event));
     }
 
-    @Scheduled(fixedRate = 30000)
-    public void pollJobs() {
-        for (var job : getJenkinsJobs()) {
-            makeRequest(job)
-                    .flatMap(response -> buildJenkinsStatusEvent(job, response))
-                    .onErrorResume(error -> buildUnknownStatusEvent(job))
-                    .flatMap(eventPublishingService::publish)
-                    .block();
+    private Mono<Void> pollFolder(JenkinsJobBatch batch) {
+        return makeFolderRequest(batch.getFolderUrl())
+                .doOnNext(entity -> recordPolled(entity, batch.getJobs()))
+                .filter(entity -> !batch.getJobs().stream()
+                        .allMatch(job -> publishedResponses.isAlreadyPublished(job.getId(), entity)))
+                .map(entity -> Optional.ofNullable(entity.getBody())
+                        .map(JenkinsFolderResponse::getJobs)
+                        .orElse(emptyList()).stream()
+                        .filter(folderJob -> folderJob.getName() != null)
+                        .collect(toMap(JenkinsFolderResponse.Job::getName, identity(), (first, second) -> first)))
+                .onErrorResume(error -> {
+                    batch.getJobs().forEach(job -> publishedResponses.forget(job.getId()));
+                    return Mono.just(emptyMap());
+                })
+                .flatMapMany(jobsByName -> Flux.fromIterable(batch.getJobs())
+                        .concatMap(job -> getJobName(job)
+                                .map(jobsByName::get)
+                                .map(folderJob -> buildFolderJobStatusEvent(job, folderJob)
+                                        .doOnNext(event -> publishedResponses.recordPublishing(job.getId())))
+                                .orElseGet(() -> buildUnknownStatusEvent(job))
+                                .flatMap(event -> publish(job, event))))
+                .then();
+    }
+
+    private Mono<Long> publish(JenkinsJob job, StatusEvent event) {
+        return eventPublishingService.publish(event)
+                .doOnError(error -> publishedResponses.forget(job.getId()))
+                .doOnNext(version -> cadence.record(job.getId(), event.getLevel(), true))
+                .switchIfEmpty(Mono.fromRunnable(() -> cadence.record(job.getId(), event.getLevel(), false)));
+    }
+
+    private void recordPolled(HttpEntity<?> entity, List<JenkinsJob> jobs) {
+        Instant now = eventClock.now();
+        jobs.forEach(job -> lastPolled.put(job.getId(), now));
+
+        if (HttpCacheFilter.isUnchanged(entity)) {
+            jobs.forEach(job -> cadence.recordUnchanged(job.getId()));
         }
     }
 
-    private Mono<JenkinsJobResponse> makeRequest(JenkinsJob job) {
+    private Mono<ResponseEntity<JenkinsJobResponse>> makeRequest(JenkinsJob job) {
         return client.get()
                 .uri(job.getUrl())
-                .header("Authorization", buildBasicAuthHeader())
+                .header("Authorization", buildBasicAuthHeader(eventProperties))
+                .attribute(HttpClientProfileFilter.PROFILE_ATTRIBUTE, eventProperties.getJob().getJenkins().getClientProfile())
                 .retrieve()
-                .bodyToMono(JenkinsJobResponse.class);
+                .toEntity(JenkinsJobResponse.class);
+    }
+
+    private Mono<ResponseEntity<JenkinsFolderResponse>> makeFolderRequest(String folderUrl) {
+        return client.get()
+                .uri(folderUrl + "/api/json?tree={tree}", FOLDER_TREE)
+                .header("Authorization", buildBasicAuthHeader(eventProperties))
+                .attribute(HttpClientProfileFilter.PROFILE_ATTRIBUTE, eventProperties.getJob().getJenkins().getClientProfile())
+                .retrieve()
+                .toEntity(JenkinsFolderResponse.class);
     }
 
     private Mono<JenkinsBuildResponse> makeBuildRequest(String url) {
         return client.get()
                 .uri(url)
-                .header("Authorization", buildBasicAuthHeader())
+                .header("Authorization", buildBasicAuthHeader(eventProperties))
+                .attribute(HttpClientProfileFilter.PROFILE_ATTRIBUTE, eventProperties.getJob().getJenkins().getClientProfile())
                 .retrieve()
                 .bodyToMono(JenkinsBuildResponse.class);
     }
 
-    private String buildBasicAuthHeader() {
+    static String buildBasicAuthHeader(EventProperties eventProperties) {
         return String.format(
                 "Basic %s",
                 Base64Utils.encodeToString((String.format(
                         "%s:%s",
-                        this.eventProperties.getJob().getJenkins().getUsername(),
-                        this.eventProperties.getJob().getJenkins().getToken())).getBytes(UTF_8)
+                        eventProperties.getJob().getJenkins().getUsername(),
+                        eventProperties.getJob().getJenkins().getToken())).getBytes(UTF_8)
                 )
         );
     }
 
+    private boolean isBatched() {
+        return Optional.of(this.eventProperties)
+                .map(EventProperties::getJob)
+                .map(JobProperties::getJenkins)
+                .map(JenkinsJobProperties::isBatched)
+                .orElse(false);
+    }
+
+    private Optional<String> getFolderUrl(JenkinsJob job) {
+        return getJobPath(job).map(path -> path.substring(0, path.lastIndexOf("/job/")));
+    }
+
+    private Optional<String> getJobName(JenkinsJob job) {
+        return getJobPath(job).map(path -> UriUtils.decode(path.substring(path.lastIndexOf("/job/") + "/job/".length()), UTF_8));
+    }
+
+    private Optional<String> getJobPath(JenkinsJob job) {
+        return Optional.ofNullable(job.getUrl())
+                .map(JenkinsJobPublisher::normalizeUrl)
+                .filter(path -> path.lastIndexOf("/job/") >= 0 && !path.endsWith("/job"));
+    }
+
     private List<JenkinsJob> getJenkinsJobs() {
         return Optional.of(this.eventProperties)
                 .map(EventProperties::getJob)
@@ -102,7 +350,7 @@ public class JenkinsJobPublisher {
     }
 
     private Mono<StatusEvent> buildJenkinsStatusEvent(JenkinsJob job, JenkinsJobResponse jenkinsJobResponse) {
-        EventLevel level = getLevelFromBuildStatus(jenkinsJobResponse);
+        EventLevel level = getLevelFromBuildStatus(jenkinsJobResponse.getColor());
 
         var event = new StatusEvent();
         event.setId("job.jenkins." + job.getId());
@@ -117,14 +365,35 @@ public class JenkinsJobPublisher {
         String lastBuildUrl = jenkinsJobResponse.getBuilds().get(0).getUrl();
         event.setUrl(lastBuildUrl);
 
-        return getBuildTime(lastBuildUrl)
-                .map(time -> time.format(DateTimeFormatter.ISO_DATE_TIME))
+        return getBuildTime(job, lastBuildUrl)
                 .map(formattedTime -> {
                     event.setTime(formattedTime);
                     return event;
                 });
     }
 
+    private Mono<StatusEvent> buildFolderJobStatusEvent(JenkinsJob job, JenkinsFolderResponse.Job folderJob) {
+        if (folderJob.getColor() == null) {
+            return buildUnknownStatusEvent(job);
+        }
+
+        EventLevel level = getLevelFromBuildStatus(folderJob.getColor());
+
+        var event = new StatusEvent();
+        event.setId("job.jenkins." + job.getId());
+        event.setName(job.getName());
+        event.setLevel(level);
+        event.setStatusText(statusTextFromLevel(level));
+
+        JenkinsFolderResponse.Build lastBuild = folderJob.getLastBuild();
+        if (lastBuild != null) {
+            event.setUrl(lastBuild.getUrl());
+            event.setTime(formatTimestamp(lastBuild.getTimestamp()));
+        }
+
+        return Mono.just(event);
+    }
+
     private Mono<StatusEvent> buildUnknownStatusEvent(JenkinsJob job) {
         var event = new StatusEvent();
         event.setId("job.jenkins." + job.getId());
@@ -135,27 +404,41 @@ public class JenkinsJobPublisher {
         return Mono.just(event);
     }
 
-    private Mono<OffsetDateTime> getBuildTime(String lastBuildUrl) {
+    private Mono<String> getBuildTime(JenkinsJob job, String lastBuildUrl) {
+        BuildTime lastBuildTime = lastBuildTimes.get(job.getId());
+        if (lastBuildTime != null && lastBuildTime.getUrl().equals(lastBuildUrl)) {
+            return Mono.just(lastBuildTime.getTime());
+        }
+
         return makeBuildRequest(String.format("%sapi/json", lastBuildUrl))
                 .map(JenkinsBuildResponse::getTimestamp)
-                .map(Instant::ofEpochMilli)
-                .map(instant -> instant.atOffset(ZoneOffset.UTC));
+                .map(this::formatTimestamp)
+                .doOnNext(time -> lastBuildTimes.put(job.getId(), new BuildTime(lastBuildUrl, time)));
+    }
+
+    private String formatTimestamp(long timestamp) {
+        OffsetDateTime time = Instant.ofEpochMilli(timestamp).atOffset(ZoneOffset.UTC);
+        return time.format(DateTimeFormatter.ISO_DATE_TIME);
     }
 
-    private EventLevel getLevelFromBuildStatus(JenkinsJobResponse jenkinsJobResponse) {
-        if (jenkinsJobResponse.getColor().equals("disabled")) {
+    private EventLevel getLevelFromBuildStatus(String color) {
+        if (color.equals("disabled")) {
             return EventLevel.DISABLED;
         }
-        if (jenkinsJobResponse.getColor().endsWith("_anime")) {
+        if (color.endsWith("_anime")) {
             return EventLevel.IN_PROGRESS;
         }
-        if (jenkinsJobResponse.getColor().equals("blue")) {
+        if (color.equals("blue")) {
             return EventLevel.OK;
         }
         return EventLevel.ERROR;
     }
 
-    private String statusTextFromLevel(EventLevel level) {
+    private static String normalizeUrl(String url) {
+        return url.replaceFirst("/api/json$", "").replaceFirst("/$", "");
+    }
+
+    static String statusTextFromLevel(EventLevel level) {
         switch (level) {
             case DISABLED:
                 return "Disabled";
@@ -169,4 +452,10 @@ public class JenkinsJobPublisher {
                 return null;
         }
     }
+
+    @Value
+    private static class BuildTime {
+        String url;
+        String time;
+    }
 }
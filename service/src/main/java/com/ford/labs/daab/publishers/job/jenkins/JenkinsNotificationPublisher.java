@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.publishers.job.jenkins;
+
+import com.ford.labs.daab.event.EventLevel;
+import com.ford.labs.daab.event.StatusEvent;
+import com.ford.labs.daab.publishers.EventPublishingService;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+@RestController
+public class JenkinsNotificationPublisher {
+    private final EventPublishingService eventPublishingService;
+    private final JenkinsJobPublisher jenkinsJobPublisher;
+
+    public JenkinsNotificationPublisher(EventPublishingService eventPublishingService, JenkinsJobPublisher jenkinsJobPublisher) {
+        this.eventPublishingService = eventPublishingService;
+        this.jenkinsJobPublisher = jenkinsJobPublisher;
+    }
+
+    @PostMapping("/api/jenkins/webhook")
+    public Mono<Long> receiveNotification(@RequestBody JenkinsNotification notification) {
+        JenkinsNotification.Build build = notification.getBuild();
+        if (build == null || build.getPhase() == null || build.getPhase().equals("QUEUED")) {
+            return Mono.empty();
+        }
+
+        return Mono.justOrEmpty(jenkinsJobPublisher.findJob(jobUrlFromBuildUrl(build.getFullUrl()), notification.getUrl()))
+                .doOnNext(jenkinsJobPublisher::recordNotification)
+                .map(job -> {
+                    EventLevel level = eventLevelFromBuild(build);
+
+                    StatusEvent event = new StatusEvent();
+                    event.setId("job.jenkins." + job.getId());
+                    event.setName(job.getName());
+                    event.setLevel(level);
+                    event.setStatusText(JenkinsJobPublisher.statusTextFromLevel(level));
+                    event.setUrl(build.getFullUrl());
+                    if (build.getTimestamp() > 0) {
+                        event.setTime(Instant.ofEpochMilli(build.getTimestamp()).atOffset(ZoneOffset.UTC).format(DateTimeFormatter.ISO_DATE_TIME));
+                    }
+                    return event;
+                })
+                .flatMap(eventPublishingService::publish);
+    }
+
+    private static String jobUrlFromBuildUrl(String buildUrl) {
+        if (buildUrl == null) {
+            return null;
+        }
+
+        String url = buildUrl.replaceFirst("/$", "");
+        return url.substring(0, url.lastIndexOf('/') + 1);
+    }
+
+    private static EventLevel eventLevelFromBuild(JenkinsNotification.Build build) {
+        if (build.getPhase().equals("STARTED")) {
+            return EventLevel.IN_PROGRESS;
+        }
+        if ("SUCCESS".equals(build.getStatus())) {
+            return EventLevel.OK;
+        }
+        return EventLevel.ERROR;
+    }
+}
@@ -16,63 +16,96 @@
 
 package com.ford.labs.daab.publishers.list.retroquest;
 
+import com.ford.labs.daab.config.EventClock;
 import com.ford.labs.daab.config.event.properties.EventProperties;
 import com.ford.labs.daab.config.event.properties.list.ListProperties;
 import com.ford.labs.daab.config.event.properties.list.RetroquestTeamListProperties;
 import com.ford.labs.daab.event.EventType;
 import com.ford.labs.daab.event.ListEvent;
+import com.ford.labs.daab.polling.PollSchedule;
+import com.ford.labs.daab.polling.PollSource;
 import com.ford.labs.daab.publishers.EventPublishingService;
 import org.slf4j.Logger;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static java.util.Collections.singletonList;
 import static org.slf4j.LoggerFactory.getLogger;
-import static org.springframework.web.reactive.function.BodyInserters.fromObject;
 
 @Service
-public class RetroQuestActionItemsListPublisher {
+public class RetroQuestActionItemsListPublisher implements PollSource<RetroquestTeamListProperties> {
     private static final Logger log = getLogger(RetroQuestActionItemsListPublisher.class);
+    private static final PollSchedule SCHEDULE = PollSchedule.every(Duration.ofMinutes(1))
+            .withJitter(Duration.ofSeconds(10))
+            .withConcurrency(2);
+
     private EventPublishingService service;
     private WebClient client;
+    private EventClock eventClock;
+    private Duration tokenTtl;
+    private final Map<String, RetroQuestTeamClient> teamClients = new ConcurrentHashMap<>();
 
     private EventProperties properties;
 
     public RetroQuestActionItemsListPublisher(
             EventPublishingService service,
             EventProperties properties,
-            WebClient client
+            WebClient client,
+            EventClock eventClock,
+            @Value("${retroquest.token-ttl:30m}") Duration tokenTtl
     ) {
         this.service = service;
         this.client = client;
+        this.eventClock = eventClock;
+        this.tokenTtl = tokenTtl;
         this.properties = properties;
     }
 
-    @Scheduled(fixedRate = 60000)
-    public void scheduledTask() {
-        pollActionItems().blockLast();
+    @Override
+    public String getName() {
+        return "retroquest";
+    }
+
+    @Override
+    public PollSchedule getSchedule() {
+        return SCHEDULE;
+    }
+
+    @Override
+    public List<RetroquestTeamListProperties> getTargets() {
+        List<RetroquestTeamListProperties> teams = getTeams();
+        teamClients.keySet().retainAll(teams.stream().map(RetroQuestActionItemsListPublisher::clientKey).collect(Collectors.toSet()));
+        return teams;
+    }
+
+    @Override
+    public Mono<Long> poll(RetroquestTeamListProperties team) {
+        return getActionItems(team)
+                .map(actionItems -> this.actionItemsToEvent(actionItems, team.getName(), team.getDisplayName()))
+                .filter(Objects::nonNull)
+                .flatMap(service::publish)
+                .doOnError(error -> log.error("Error when polling action items: ", error));
     }
 
     Flux<Long> pollActionItems() {
         return Flux.fromIterable(getTeams())
-                .flatMap(team -> getActionItems(team)
-                        .map(actionItems -> this.actionItemsToEvent(actionItems, team.getName(), team.getDisplayName()))
-                        .filter(Objects::nonNull)
-                        .flatMap(service::publish)
-                        .doOnError(error -> log.error("Error when polling action items: ", error)));
+                .flatMap(this::poll);
     }
 
     private List<RetroquestTeamListProperties> getTeams() {
@@ -83,24 +116,12 @@ public class RetroQuestActionItemsListPublisher {
     }
 
     private Mono<List<RetroQuestActionItem>> getActionItems(RetroquestTeamListProperties team) {
-        var teamClient = client.mutate()
-                .baseUrl(team.getUrl())
-                .build();
-
-        return teamClient.post()
-                .uri("/api/team/login")
-                .body(fromObject(team))
-                .retrieve()
-                .bodyToMono(String.class)
-                .doOnError(error -> log.error("Error when logging in: ", error))
-                .flatMap(token ->
-                        teamClient.get()
-                                .uri(String.format("/api/team/%s/action-items", team.getName()))
-                                .header("Authorization", "Bearer " + token)
-                                .retrieve()
-                                .bodyToFlux(RetroQuestActionItem.class)
-                                .collectList()
-                );
+        return teamClients.computeIfAbsent(clientKey(team), key -> new RetroQuestTeamClient(team, client, eventClock, tokenTtl))
+                .getActionItems();
+    }
+
+    private static String clientKey(RetroquestTeamListProperties team) {
+        return team.getUrl() + " " + team.getName();
     }
 
     private ListEvent actionItemsToEvent(List<RetroQuestActionItem> actionItems, String teamId, String displayName) {
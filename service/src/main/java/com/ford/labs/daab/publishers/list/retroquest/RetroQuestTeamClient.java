@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.publishers.list.retroquest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ford.labs.daab.config.EventClock;
+import com.ford.labs.daab.config.event.properties.list.RetroquestTeamListProperties;
+import org.slf4j.Logger;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * One RetroQuest team's client. The bearer token is reused until it expires, taken from the JWT's
+ * exp claim or the configured TTL, and a 401 for the action items triggers a single re-login.
+ */
+class RetroQuestTeamClient {
+    private static final Logger log = getLogger(RetroQuestTeamClient.class);
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final Duration EXPIRY_MARGIN = Duration.ofSeconds(30);
+
+    private final RetroquestTeamListProperties team;
+    private final WebClient client;
+    private final EventClock eventClock;
+    private final Duration tokenTtl;
+    private volatile Token token;
+
+    RetroQuestTeamClient(RetroquestTeamListProperties team, WebClient client, EventClock eventClock, Duration tokenTtl) {
+        this.team = team;
+        this.client = client.mutate()
+                .baseUrl(team.getUrl())
+                .build();
+        this.eventClock = eventClock;
+        this.tokenTtl = tokenTtl;
+    }
+
+    Mono<List<RetroQuestActionItem>> getActionItems() {
+        return getToken()
+                .flatMap(current -> getActionItems(current)
+                        .onErrorResume(WebClientResponseException.Unauthorized.class, error -> {
+                            token = null;
+                            return login().flatMap(this::getActionItems);
+                        }));
+    }
+
+    private Mono<String> getToken() {
+        return Mono.defer(() -> {
+            Token current = token;
+            return current != null && current.isValid(eventClock.now())
+                    ? Mono.just(current.getValue())
+                    : login();
+        });
+    }
+
+    private Mono<String> login() {
+        return client.post()
+                .uri("/api/team/login")
+                .bodyValue(team)
+                .retrieve()
+                .bodyToMono(String.class)
+                .doOnNext(value -> token = new Token(value, expiresAt(value)))
+                .doOnError(error -> log.error("Error when logging in: ", error));
+    }
+
+    private Mono<List<RetroQuestActionItem>> getActionItems(String token) {
+        return client.get()
+                .uri(String.format("/api/team/%s/action-items", team.getName()))
+                .header("Authorization", "Bearer " + token)
+                .retrieve()
+                .bodyToFlux(RetroQuestActionItem.class)
+                .collectList();
+    }
+
+    private Instant expiresAt(String token) {
+        Instant fallback = eventClock.now().plus(tokenTtl);
+        String[] parts = token.split("\\.");
+        if (parts.length != 3) {
+            return fallback;
+        }
+
+        try {
+            JsonNode claims = mapper.readTree(Base64.getUrlDecoder().decode(parts[1]));
+            return Optional.ofNullable(claims.get("exp"))
+                    .filter(JsonNode::canConvertToLong)
+                    .map(exp -> Instant.ofEpochSecond(exp.asLong()).minus(EXPIRY_MARGIN))
+                    .orElse(fallback);
+        } catch (Exception e) {
+            return fallback;
+        }
+    }
+
+    private static class Token {
+        private final String value;
+        private final Instant expiresAt;
+
+        Token(String value, Instant expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        String getValue() {
+            return value;
+        }
+
+        boolean isValid(Instant now) {
+            return now.isBefore(expiresAt);
+        }
+    }
+}
@@ -20,23 +20,27 @@ import com.ford.labs.daab.config.event.properties.EventProperties;
 import com.ford.labs.daab.config.event.properties.quote.QuoteProperties;
 import com.ford.labs.daab.event.EventLevel;
 import com.ford.labs.daab.event.QuoteEvent;
+import com.ford.labs.daab.polling.PollSchedule;
+import com.ford.labs.daab.polling.PollSource;
 import com.ford.labs.daab.publishers.EventPublishingService;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
 @Service
-public class UpwiseQuotePublisher {
+public class UpwiseQuotePublisher implements PollSource<String> {
+    private static final PollSchedule SCHEDULE = PollSchedule.every(Duration.ofSeconds(30));
     private static final QuoteEvent DOWN = new QuoteEvent();
 
     static {
@@ -68,9 +72,24 @@ public class UpwiseQuotePublisher {
                 .build();
     }
 
-    @Scheduled(fixedRate = 30000)
-    public void scheduledTask() {
-        pollQuotes().block();
+    @Override
+    public String getName() {
+        return "upwise";
+    }
+
+    @Override
+    public PollSchedule getSchedule() {
+        return SCHEDULE;
+    }
+
+    @Override
+    public List<String> getTargets() {
+        return isEnabled ? List.of("quote.upwise") : List.of();
+    }
+
+    @Override
+    public Mono<Long> poll(String id) {
+        return pollQuotes();
     }
 
     Mono<Long> pollQuotes() {
@@ -23,14 +23,19 @@ import com.ford.labs.daab.config.event.properties.statistics.AppCenterStatistics
 import com.ford.labs.daab.config.event.properties.statistics.StatisticsProperties;
 import com.ford.labs.daab.event.EventType;
 import com.ford.labs.daab.event.StatisticsEvent;
+import com.ford.labs.daab.http.PublishedResponses;
+import com.ford.labs.daab.polling.PollSchedule;
+import com.ford.labs.daab.polling.PollSource;
 import com.ford.labs.daab.publishers.EventPublishingService;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.http.HttpEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
@@ -39,14 +44,17 @@ import java.util.Optional;
 import static org.slf4j.LoggerFactory.getLogger;
 
 @Service
-public class AppCenterStatisticsPublisher {
+public class AppCenterStatisticsPublisher implements PollSource<AppCenterApp> {
 
     private static final Logger log = getLogger(AppCenterStatisticsPublisher.class);
+    private static final PollSchedule SCHEDULE = PollSchedule.every(Duration.ofSeconds(30))
+            .withJitter(Duration.ofSeconds(5))
+            .withConcurrency(4);
     private final EventProperties eventProperties;
     private final WebClient webClient;
     private final EventPublishingService eventPublishingService;
     private final EventClock eventClock;
-
+    private final PublishedResponses publishedResponses = new PublishedResponses();
 
     public AppCenterStatisticsPublisher(EventProperties eventProperties, WebClient webClient, EventPublishingService eventPublishingService, EventClock eventClock, @Value("${appcenter.url:https://api.appcenter.ms}") String url) {
         this.eventProperties = eventProperties;
@@ -57,31 +65,50 @@ public class AppCenterStatisticsPublisher {
                 .build();
     }
 
-    @Scheduled(fixedRate = 30000)
-    public void pollApps() {
-        Flux.fromIterable(getApps())
-                .doOnNext(app -> log.info("Processing app center statistics for app " + app.getAppname()))
-                .flatMap(app -> retrieveActiveSessionCountsForToday(app, eventProperties.getStatistics().getAppcenter().getToken()))
+    @Override
+    public String getName() {
+        return "appcenter";
+    }
+
+    @Override
+    public PollSchedule getSchedule() {
+        return SCHEDULE;
+    }
+
+    @Override
+    public List<AppCenterApp> getTargets() {
+        return getApps();
+    }
+
+    @Override
+    public Mono<Void> poll(AppCenterApp app) {
+        log.info("Processing app center statistics for app " + app.getAppname());
+        String eventId = "statistics.appcenter." + app.getAppname();
+        return retrieveActiveSessionCountsForToday(app, eventId, eventProperties.getStatistics().getAppcenter().getToken())
                 .map(appCenterStat -> {
                     var event = new StatisticsEvent();
                     event.setStatistics(List.of(appCenterStat.getStat()));
-                    event.setId("statistics.appcenter." + appCenterStat.getApp().getAppname());
+                    event.setId(eventId);
                     event.setEventType(EventType.STATISTICS);
                     event.setName(appCenterStat.getApp().getAppname());
                     event.setTime(eventClock.getISOFormattedDateTime());
                     return event;
                 })
+                .doOnNext(event -> publishedResponses.recordPublishing(eventId))
                 .flatMap(eventPublishingService::publish)
+                .doOnError(e -> publishedResponses.forget(eventId))
                 .onErrorMap(e -> new RuntimeException("Error publishing event for app statistics from AppCenter.", e))
                 .doOnError(e -> log.error(e.getMessage(), e))
-                .blockLast();
+                .then();
     }
 
-    private Flux<AppCenterStatistic> retrieveActiveSessionCountsForToday(AppCenterApp app, String token) {
+    private Flux<AppCenterStatistic> retrieveActiveSessionCountsForToday(AppCenterApp app, String eventId, String token) {
         String uri = "/v0.1/apps/" + app.getOwnername() + "/" + app.getAppname() + "/analytics/session_counts?start=" + LocalDate.now() + "&interval=P1D";
         return webClient.get().uri(uri).header("X-API-Token", token)
                 .retrieve()
-                .bodyToFlux(CountResponse.class)
+                .toEntityList(CountResponse.class)
+                .filter(entity -> !publishedResponses.isAlreadyPublished(eventId, entity))
+                .flatMapIterable(HttpEntity::getBody)
                 .map(countResponse -> new AppCenterStatistic(app, new StatisticsEvent.Statistic("active sessions today", countResponse.count)))
                 .doOnError(e -> log.error("Error retrieving app with name " + app.getAppname() + " statistics in AppCenter.", e));
     }
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.publishers.weather.nws;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveHashOperations;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Keeps the forecast urls that NWS resolves for a point in Redis, so a restart does not call
+ * /points again for every location. Redis errors are treated as misses.
+ */
+@Service
+public class NwsPointsCache {
+    private static final Logger log = getLogger(NwsPointsCache.class);
+    private static final String KEY_PREFIX = "nws-points.";
+    private static final String FORECAST = "forecast";
+    private static final String FORECAST_HOURLY = "forecastHourly";
+
+    private final ReactiveRedisTemplate<String, String> stringTemplate;
+    private final Duration ttl;
+
+    public NwsPointsCache(ReactiveRedisTemplate<String, String> stringTemplate, @Value("${nws.points-ttl:30d}") Duration ttl) {
+        this.stringTemplate = stringTemplate;
+        this.ttl = ttl;
+    }
+
+    public Mono<NwsPointsResponse.Properties> get(String lat, String lon) {
+        return getHashOperations().entries(key(lat, lon))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .filter(fields -> fields.containsKey(FORECAST))
+                .map(fields -> new NwsPointsResponse.Properties(fields.get(FORECAST), fields.get(FORECAST_HOURLY)))
+                .onErrorResume(error -> {
+                    log.warn(String.format("Could not read cached NWS points for [%s,%s]: %s", lat, lon, error.getMessage()));
+                    return Mono.empty();
+                });
+    }
+
+    public Mono<Boolean> put(String lat, String lon, NwsPointsResponse.Properties properties) {
+        Map<String, String> fields = new HashMap<>();
+        fields.put(FORECAST, properties.getForecast());
+        if (properties.getForecastHourly() != null) {
+            fields.put(FORECAST_HOURLY, properties.getForecastHourly());
+        }
+
+        String key = key(lat, lon);
+        return getHashOperations().delete(key)
+                .then(getHashOperations().putAll(key, fields))
+                .then(stringTemplate.expire(key, ttl))
+                .onErrorResume(error -> {
+                    log.warn(String.format("Could not cache NWS points for [%s,%s]: %s", lat, lon, error.getMessage()));
+                    return Mono.just(false);
+                });
+    }
+
+    public Mono<Boolean> evict(String lat, String lon) {
+        return getHashOperations().delete(key(lat, lon))
+                .onErrorReturn(false);
+    }
+
+    private ReactiveHashOperations<String, String, String> getHashOperations() {
+        return stringTemplate.opsForHash();
+    }
+
+    private static String key(String lat, String lon) {
+        return KEY_PREFIX + lat + "," + lon;
+    }
+}
@@ -31,5 +31,10 @@ public class NwsPointsResponse {
     @AllArgsConstructor
     public static class Properties {
         String forecast;
+        String forecastHourly;
+
+        public Properties(String forecast) {
+            this.forecast = forecast;
+        }
     }
 }
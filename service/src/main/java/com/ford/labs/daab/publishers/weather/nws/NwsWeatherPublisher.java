@@ -20,15 +20,19 @@ import com.ford.labs.daab.config.event.properties.EventProperties;
 import com.ford.labs.daab.config.event.properties.weather.NwsWeatherProperties;
 import com.ford.labs.daab.config.event.properties.weather.WeatherProperties;
 import com.ford.labs.daab.event.WeatherEvent;
+import com.ford.labs.daab.http.PublishedResponses;
+import com.ford.labs.daab.polling.PollSchedule;
+import com.ford.labs.daab.polling.PollSource;
 import com.ford.labs.daab.publishers.EventPublishingService;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.http.HttpEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
-import reactor.core.publisher.Flux;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -37,50 +41,72 @@ import static java.util.Collections.emptyList;
 import static org.slf4j.LoggerFactory.getLogger;
 
 @Service
-public class NwsWeatherPublisher {
+public class NwsWeatherPublisher implements PollSource<NwsWeatherProperties> {
     private static final Logger log = getLogger(NwsWeatherPublisher.class);
+    private static final PollSchedule SCHEDULE = PollSchedule.every(Duration.ofMinutes(10))
+            .withJitter(Duration.ofSeconds(30))
+            .withConcurrency(2);
+
     private final EventPublishingService service;
     private final WebClient client;
+    private final NwsPointsCache pointsCache;
+    private final PublishedResponses publishedResponses = new PublishedResponses();
 
     private final EventProperties eventProperties;
 
     public NwsWeatherPublisher(
             EventPublishingService service,
             WebClient client,
+            NwsPointsCache pointsCache,
             EventProperties eventProperties,
             @Value("${nws.url:https://api.weather.gov}") String nwsUrl
     ) {
         this.service = service;
+        this.pointsCache = pointsCache;
         this.client = client.mutate()
                 .baseUrl(nwsUrl)
                 .build();
         this.eventProperties = eventProperties;
     }
 
-    @Scheduled(fixedRate = 600000)
-    public void pollWeather() {
-        Flux.fromIterable(getWeatherLocations())
-                .flatMap(location -> this.getPointsResponse(location)
-                        .map(this::pointsResponseToForecastUrl)
-                        .flatMap(this::getForecastResponse)
-                        .filter(Objects::nonNull)
-                        .map(response -> {
-                            var currentPeriod = response.getProperties().getPeriods().get(0);
-
-                            var event = new WeatherEvent();
-                            event.setId(String.format("weather.%s", location.getId()));
-                            event.setName(location.getName());
-                            event.setEventType("WEATHER");
-                            event.setTime(response.getProperties().getUpdated());
-                            event.setTemperature(currentPeriod.getTemperature());
-                            event.setTemperatureUnit(currentPeriod.getTemperatureUnit());
-                            event.setCondition(currentPeriod.getShortForecast());
-                            return event;
-                        })
-                        .flatMap(service::publish)
-                        .onErrorReturn(0L)
-                )
-                .blockLast();
+    @Override
+    public String getName() {
+        return "nws";
+    }
+
+    @Override
+    public PollSchedule getSchedule() {
+        return SCHEDULE;
+    }
+
+    @Override
+    public List<NwsWeatherProperties> getTargets() {
+        return getWeatherLocations();
+    }
+
+    @Override
+    public Mono<Long> poll(NwsWeatherProperties location) {
+        String eventId = String.format("weather.%s", location.getId());
+
+        return this.getForecast(location, eventId)
+                .filter(Objects::nonNull)
+                .map(response -> {
+                    var currentPeriod = response.getProperties().getPeriods().get(0);
+
+                    var event = new WeatherEvent();
+                    event.setId(eventId);
+                    event.setName(location.getName());
+                    event.setEventType("WEATHER");
+                    event.setTime(response.getProperties().getUpdated());
+                    event.setTemperature(currentPeriod.getTemperature());
+                    event.setTemperatureUnit(currentPeriod.getTemperatureUnit());
+                    event.setCondition(currentPeriod.getShortForecast());
+                    return event;
+                })
+                .doOnNext(event -> publishedResponses.recordPublishing(eventId))
+                .flatMap(service::publish)
+                .doOnError(error -> publishedResponses.forget(eventId))
+                .onErrorReturn(0L);
     }
 
     private List<NwsWeatherProperties> getWeatherLocations() {
@@ -90,6 +116,24 @@ public class NwsWeatherPublisher {
                 .orElse(emptyList());
     }
 
+    private Mono<NwsForecastResponse> getForecast(NwsWeatherProperties location, String eventId) {
+        Mono<NwsForecastResponse> resolved = Mono.defer(() -> resolvePoints(location))
+                .flatMap(points -> getForecastResponse(eventId, points.getForecast()));
+
+        return pointsCache.get(location.getLat(), location.getLon())
+                .map(points -> getForecastResponse(eventId, points.getForecast())
+                        .onErrorResume(WebClientResponseException.NotFound.class, error -> pointsCache.evict(location.getLat(), location.getLon())
+                                .then(resolved)))
+                .defaultIfEmpty(resolved)
+                .flatMap(forecast -> forecast);
+    }
+
+    private Mono<NwsPointsResponse.Properties> resolvePoints(NwsWeatherProperties location) {
+        return getPointsResponse(location)
+                .map(NwsPointsResponse::getProperties)
+                .flatMap(points -> pointsCache.put(location.getLat(), location.getLon(), points).thenReturn(points));
+    }
+
     private Mono<NwsPointsResponse> getPointsResponse(NwsWeatherProperties location) {
         var uri = String.format("/points/%s,%s", location.getLat(), location.getLon());
 
@@ -101,16 +145,14 @@ public class NwsWeatherPublisher {
                 .doOnError(error -> log.error("Error fetching Points Response: ", error));
     }
 
-    private String pointsResponseToForecastUrl(NwsPointsResponse response) {
-        return response.getProperties().getForecast();
-    }
-
-    private Mono<NwsForecastResponse> getForecastResponse(String uri) {
+    private Mono<NwsForecastResponse> getForecastResponse(String eventId, String uri) {
         return client.get()
                 .uri(uri)
                 .header("Host", "api.weather.gov")
                 .retrieve()
-                .bodyToMono(NwsForecastResponse.class)
+                .toEntity(NwsForecastResponse.class)
+                .filter(entity -> !publishedResponses.isAlreadyPublished(eventId, entity))
+                .map(HttpEntity::getBody)
                 .doOnError(error -> log.error("Error fetching Forecast Response: ", error));
     }
 
@@ -11,20 +11,30 @@
  * distributed under the License is distributed on an "AS IS" BASIS,
  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
  * See the License for the specific language governing permissions and limitations under the License.
- *  
+ *
  */
 
 package com.ford.labs.daab.radiator;
 
 import com.ford.labs.daab.config.radiator.properties.RadiatorProperties;
+import org.springframework.data.redis.connection.ReactiveSubscription;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.ReplayProcessor;
 
 @Service
 public class RadiatorConfigurationService {
+    public static final String UPDATED_CHANNEL = "radiator-updated";
+
     private final ReactiveRedisTemplate<String, RadiatorProperties> template;
 
+    private final ReplayProcessor<RadiatorRoutes> routeUpdates = ReplayProcessor.cacheLast();
+    private final FluxSink<RadiatorRoutes> routeUpdatesSink = routeUpdates.sink();
+    private volatile RadiatorRoutes routes;
+
     public RadiatorConfigurationService(ReactiveRedisTemplate<String, RadiatorProperties> template) {
         this.template = template;
     }
@@ -37,6 +47,37 @@ public class RadiatorConfigurationService {
     public Mono<Void> setConfiguration(RadiatorProperties radiatorProperties) {
         return template.opsForValue()
                 .set("radiator", radiatorProperties)
+                .doOnNext(saved -> updateRoutes(radiatorProperties))
+                .then(template.convertAndSend(UPDATED_CHANNEL, radiatorProperties))
                 .then();
     }
+
+    public Flux<RadiatorRoutes> getRoutes() {
+        return Mono.defer(() -> routes != null
+                ? Mono.empty()
+                : getConfiguration().defaultIfEmpty(new RadiatorProperties()).doOnNext(this::loadRoutes).then()
+        )
+                .thenMany(routeUpdates);
+    }
+
+    public Flux<RadiatorRoutes> listenForChanges() {
+        return template.listenToChannel(UPDATED_CHANNEL)
+                .map(ReactiveSubscription.Message::getMessage)
+                .map(this::updateRoutes);
+    }
+
+    private synchronized void loadRoutes(RadiatorProperties radiatorProperties) {
+        if (routes == null) {
+            updateRoutes(radiatorProperties);
+        }
+    }
+
+    private synchronized RadiatorRoutes updateRoutes(RadiatorProperties radiatorProperties) {
+        RadiatorRoutes compiled = RadiatorRoutes.compile(radiatorProperties);
+        if (!compiled.equals(routes)) {
+            routes = compiled;
+            routeUpdatesSink.next(compiled);
+        }
+        return compiled;
+    }
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.radiator;
+
+import com.ford.labs.daab.config.radiator.properties.EventDisplayProperties;
+import com.ford.labs.daab.config.radiator.properties.PageProperties;
+import com.ford.labs.daab.config.radiator.properties.RadiatorProperties;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+@EqualsAndHashCode
+public class RadiatorRoutes {
+    @Getter private final String name;
+    @Getter private final Set<String> ids;
+    private final List<String> pageNames;
+    private final List<Set<String>> pageIds;
+
+    private RadiatorRoutes(String name, Set<String> ids, List<String> pageNames, List<Set<String>> pageIds) {
+        this.name = name;
+        this.ids = ids;
+        this.pageNames = pageNames;
+        this.pageIds = pageIds;
+    }
+
+    public static RadiatorRoutes compile(RadiatorProperties radiator) {
+        Set<String> ids = new LinkedHashSet<>();
+        List<String> pageNames = new ArrayList<>();
+        List<Set<String>> pageIds = new ArrayList<>();
+
+        for (PageProperties page : nonNull(radiator.getPages())) {
+            Set<String> idsOnPage = new LinkedHashSet<>();
+            nonNull(page.getTiles()).stream()
+                    .filter(Objects::nonNull)
+                    .map(EventDisplayProperties::getId)
+                    .filter(Objects::nonNull)
+                    .forEach(idsOnPage::add);
+
+            ids.addAll(idsOnPage);
+            pageNames.add(page.getName());
+            pageIds.add(Set.copyOf(idsOnPage));
+        }
+
+        return new RadiatorRoutes(radiator.getName(), Set.copyOf(ids), pageNames, pageIds);
+    }
+
+    public Set<String> getIds(String page) {
+        if (page == null || page.isEmpty()) {
+            return ids;
+        }
+
+        int index = pageNames.indexOf(page);
+        if (index < 0 && page.chars().allMatch(Character::isDigit)) {
+            index = Integer.parseInt(page);
+        }
+
+        return index >= 0 && index < pageIds.size()
+                ? pageIds.get(index)
+                : ids;
+    }
+
+    private static <T> List<T> nonNull(List<T> values) {
+        return values == null ? List.of() : values;
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.ford.labs.daab.subscribers;
 
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
@@ -30,8 +31,8 @@ public class CachedEventSubscriberHandler {
     }
 
     public Mono<ServerResponse> get(ServerRequest request) {
-        return service.getCachedEventOrEmpty(request.pathVariable("id"))
-                .flatMap(event -> ServerResponse.ok().syncBody(event))
+        return service.getCachedRecordOrEmpty(request.pathVariable("id"))
+                .flatMap(record -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(record.getJson()))
                 .switchIfEmpty(ServerResponse.notFound().build());
     }
 }
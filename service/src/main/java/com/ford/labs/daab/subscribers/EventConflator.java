@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.subscribers;
+
+import com.ford.labs.daab.cache.EventRecord;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coalesces pending records per event id for subscribers that fall behind. When more than max-pending distinct ids are
+ * waiting, the pending records are replaced by the resync source, which must yield the current state of every event
+ * the subscriber wants, so a slow subscriber skips intermediate versions but never loses the latest one.
+ */
+@Component
+public class EventConflator {
+    private static final Logger log = org.slf4j.LoggerFactory.getLogger(EventConflator.class);
+
+    private int maxPending;
+    private Counter coalesced;
+    private Counter resynced;
+    private Counter stale;
+
+    public EventConflator(MeterRegistry meterRegistry, @Value("${event.subscription.max-pending:512}") int maxPending) {
+        this.maxPending = maxPending;
+        this.coalesced = Counter.builder("event.subscription.frames").tag("outcome", "coalesced").register(meterRegistry);
+        this.resynced = Counter.builder("event.subscription.frames").tag("outcome", "resynced").register(meterRegistry);
+        this.stale = Counter.builder("event.subscription.frames").tag("outcome", "stale").register(meterRegistry);
+    }
+
+    public Flux<EventRecord> conflate(Flux<EventRecord> records, Flux<EventRecord> resync) {
+        return Flux.create(sink -> {
+            PendingRecords pending = new PendingRecords(sink, resync);
+            sink.onRequest(requested -> pending.drain());
+
+            Disposable upstream = records.subscribe(pending::offer, sink::error, pending::complete);
+            sink.onDispose(Disposables.composite(upstream, pending));
+        });
+    }
+
+    private class PendingRecords implements Disposable {
+        private final FluxSink<EventRecord> sink;
+        private final Flux<EventRecord> resync;
+        private final Map<String, EventRecord> records = new LinkedHashMap<>();
+        private final Map<String, Long> versions = new HashMap<>();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final Disposable.Swap resyncing = Disposables.swap();
+        private volatile boolean done;
+        private boolean loading;
+
+        PendingRecords(FluxSink<EventRecord> sink, Flux<EventRecord> resync) {
+            this.sink = sink;
+            this.resync = resync;
+        }
+
+        void offer(EventRecord record) {
+            boolean overflowed = false;
+            synchronized (records) {
+                if (isStale(record)) {
+                    stale.increment();
+                    return;
+                }
+
+                if (records.containsKey(record.getId())) {
+                    coalesced.increment();
+                } else if (records.size() >= maxPending && !loading) {
+                    records.clear();
+                    loading = true;
+                    overflowed = true;
+                    resynced.increment();
+                }
+                records.put(record.getId(), record);
+            }
+
+            if (overflowed) {
+                log.warn(String.format("Subscriber fell more than %d events behind; resyncing it from the cache", maxPending));
+                resyncing.update(resync.subscribe(this::load, sink::error, this::loaded));
+            }
+            drain();
+        }
+
+        private void load(EventRecord record) {
+            synchronized (records) {
+                if (!isStale(record)) {
+                    records.put(record.getId(), record);
+                }
+            }
+        }
+
+        private void loaded() {
+            synchronized (records) {
+                loading = false;
+            }
+            drain();
+        }
+
+        private boolean isStale(EventRecord record) {
+            if (record.getVersion() == 0) {
+                return false;
+            }
+
+            EventRecord pending = records.get(record.getId());
+            Long sent = versions.get(record.getId());
+            return pending != null && pending.getVersion() >= record.getVersion()
+                    || sent != null && sent >= record.getVersion();
+        }
+
+        void complete() {
+            done = true;
+            drain();
+        }
+
+        void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+
+            do {
+                while (sink.requestedFromDownstream() > 0 && !sink.isCancelled()) {
+                    EventRecord next = poll();
+                    if (next == null) {
+                        break;
+                    }
+                    sink.next(next);
+                }
+
+                if (done && isEmpty()) {
+                    sink.complete();
+                }
+            } while (wip.decrementAndGet() != 0);
+        }
+
+        private EventRecord poll() {
+            synchronized (records) {
+                Iterator<EventRecord> oldest = records.values().iterator();
+                if (!oldest.hasNext()) {
+                    return null;
+                }
+                EventRecord next = oldest.next();
+                oldest.remove();
+                if (next.getVersion() > 0) {
+                    versions.put(next.getId(), next.getVersion());
+                }
+                return next;
+            }
+        }
+
+        private boolean isEmpty() {
+            synchronized (records) {
+                return !loading && records.isEmpty();
+            }
+        }
+
+        @Override
+        public void dispose() {
+            resyncing.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return resyncing.isDisposed();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.subscribers;
+
+import com.ford.labs.daab.cache.EventRecord;
+import com.ford.labs.daab.event.EventType;
+import com.ford.labs.daab.subscribers.model.SubscriptionRequest;
+import org.slf4j.Logger;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+public class EventFilter {
+    private static final Logger log = getLogger(EventFilter.class);
+    private static final EventFilter ALL = new EventFilter(Set.of(), Set.of());
+    private static final EventFilter NONE = new EventFilter(Set.of(), Set.of());
+    private static final Set<String> EVENT_TYPES = Set.of(
+            EventType.STATUS,
+            EventType.HEALTH,
+            EventType.JOB,
+            EventType.FIGURE,
+            EventType.QUOTE,
+            EventType.PERCENTAGE,
+            EventType.STATISTICS,
+            EventType.WEATHER,
+            EventType.LIST,
+            EventType.IMAGE,
+            EventType.UNKNOWN,
+            EventType.COUNTDOWN,
+            EventType.ALL
+    );
+
+    private final Set<String> ids;
+    private final Set<String> idPrefixes;
+
+    private EventFilter(Set<String> ids, Set<String> idPrefixes) {
+        this.ids = ids;
+        this.idPrefixes = idPrefixes;
+    }
+
+    public static EventFilter all() {
+        return ALL;
+    }
+
+    public static EventFilter ofIds(Collection<String> ids) {
+        return new EventFilter(Set.copyOf(nonNull(ids)), Set.of());
+    }
+
+    public static EventFilter ofType(String eventType) {
+        return of(List.of(), List.of(), Collections.singletonList(eventType));
+    }
+
+    public static EventFilter of(SubscriptionRequest request) {
+        if (request == null) {
+            return ALL;
+        }
+        return of(request.getIds(), request.getPrefixes(), request.getTypes());
+    }
+
+    public static EventFilter of(Collection<String> ids, Collection<String> prefixes, Collection<String> types) {
+        List<String> requestedIds = nonNull(ids);
+        List<String> requestedTypes = nonNull(types);
+        Set<String> idPrefixes = new HashSet<>(nonNull(prefixes));
+        if (requestedIds.isEmpty() && idPrefixes.isEmpty() && requestedTypes.isEmpty()) {
+            return ALL;
+        }
+
+        for (String type : requestedTypes) {
+            if (EVENT_TYPES.contains(type.toUpperCase())) {
+                idPrefixes.add(eventTypeToIdPrefix(type));
+            } else {
+                log.warn(String.format("Ignoring unknown event type in subscription: %s", type));
+            }
+        }
+
+        if (idPrefixes.contains("")) {
+            return ALL;
+        }
+        if (requestedIds.isEmpty() && idPrefixes.isEmpty()) {
+            return NONE;
+        }
+
+        return new EventFilter(Set.copyOf(requestedIds), Set.copyOf(idPrefixes));
+    }
+
+    public boolean matchesEverything() {
+        return this == ALL;
+    }
+
+    public boolean matches(EventRecord record) {
+        return matches(record.getId());
+    }
+
+    public boolean matches(String id) {
+        if (matchesEverything()) {
+            return true;
+        }
+
+        return ids.contains(id) || idPrefixes.stream().anyMatch(id::startsWith);
+    }
+
+    private static List<String> nonNull(Collection<String> values) {
+        if (values == null) {
+            return List.of();
+        }
+        return values.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private static String eventTypeToIdPrefix(String eventType) {
+        return EventType.ALL.equalsIgnoreCase(eventType)
+                ? ""
+                : eventType.toLowerCase();
+    }
+}
@@ -16,11 +16,10 @@
 
 package com.ford.labs.daab.subscribers;
 
-import com.ford.labs.daab.event.EventType;
+import com.ford.labs.daab.cache.EventCache;
+import com.ford.labs.daab.cache.EventRecord;
+import com.ford.labs.daab.cache.EventStream;
 import com.ford.labs.daab.event.Event;
-import org.springframework.data.redis.connection.ReactiveSubscription;
-import org.springframework.data.redis.core.ReactiveHashOperations;
-import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -28,69 +27,69 @@ import reactor.core.publisher.Mono;
 @Service
 public class EventSubscriptionService {
 
-    private ReactiveRedisTemplate<String, Event> eventTemplate;
+    private EventStream eventStream;
+    private EventCache eventCache;
+    private EventConflator eventConflator;
 
-    public EventSubscriptionService(ReactiveRedisTemplate<String, Event> eventTemplate) {
-        this.eventTemplate = eventTemplate;
+    public EventSubscriptionService(EventStream eventStream, EventCache eventCache, EventConflator eventConflator) {
+        this.eventStream = eventStream;
+        this.eventCache = eventCache;
+        this.eventConflator = eventConflator;
     }
 
     public Flux<Event> subscribe(String eventType) {
-        return eventTemplate.listenToPattern(eventTypeToPattern(eventType))
-                .map(ReactiveSubscription.Message::getMessage);
+        EventFilter filter = EventFilter.ofType(eventType);
+        return eventConflator.conflate(subscribeToRecords(filter), Flux.defer(() -> getCachedRecords(filter)))
+                .filter(record -> !record.isDeleted())
+                .map(EventRecord::getEvent);
+    }
+
+    public Flux<EventRecord> subscribeToRecords(String eventType) {
+        return subscribeToRecords(EventFilter.ofType(eventType));
+    }
+
+    // Unbounded: subscribers that can fall behind go through the EventConflator, which resyncs them from the cache.
+    public Flux<EventRecord> subscribeToRecords(EventFilter filter) {
+        return Flux.merge(eventStream.records(), eventStream.deletions())
+                .filter(filter::matches);
     }
 
     public Flux<Event> getCachedEvents() {
-        ReactiveHashOperations<String, String, Event> eventHashOperations = eventTemplate.opsForHash(eventTemplate.getSerializationContext());
+        return getCachedRecords()
+                .map(EventRecord::getEvent);
+    }
 
-        return getEventHashOperations().values("event");
+    public Flux<EventRecord> getCachedRecords() {
+        return eventCache.snapshot();
     }
 
-    public Mono<Event> getCachedEventOrEmpty(String id) {
-        return eventIsPresentInCache(id)
-                .flatMap(eventIsPresent -> eventIsPresent
-                        ? getCachedEvent(id)
-                        : Mono.empty()
-                );
+    public Flux<EventRecord> getCachedRecords(EventFilter filter) {
+        return getCachedRecords()
+                .filter(filter::matches);
     }
-    private Mono<Boolean> eventIsPresentInCache(String id) {
-        return getEventHashOperations()
-                .hasKey("event", id);
+
+    public Mono<byte[]> getCachedSnapshotFrame(EventFilter filter) {
+        if (filter.matchesEverything()) {
+            return eventCache.snapshotFrame();
+        }
+
+        return getCachedRecords(filter)
+                .collectList()
+                .map(EventRecord::toJsonArray);
     }
 
-    private Mono<Event> getCachedEvent(String id) {
-        return getEventHashOperations()
-                .get("event", id);
+    public Flux<EventRecord> getCachedRecordsChangedSince(EventFilter filter, long version) {
+        return eventCache.changedSince(version)
+                .filter(filter::matches);
     }
 
-    private ReactiveHashOperations<String, String, Event> getEventHashOperations() {
-        return eventTemplate.opsForHash(eventTemplate.getSerializationContext());
+    public Mono<byte[]> getCachedFrameChangedSince(EventFilter filter, long version) {
+        return getCachedRecordsChangedSince(filter, version)
+                .collectList()
+                .map(EventRecord::toJsonArray);
     }
 
-    private static String eventTypeToPattern(String eventType) {
-        switch (eventType) {
-            case EventType.HEALTH:
-                return "event.health*";
-            case EventType.JOB:
-                return "event.job*";
-            case EventType.FIGURE:
-                return "event.figure*";
-            case EventType.QUOTE:
-                return "event.quote*";
-            case EventType.PERCENTAGE:
-                return "event.percentage*";
-            case EventType.STATISTICS:
-                return "event.statistics*";
-            case EventType.WEATHER:
-                return "event.weather*";
-            case EventType.LIST:
-                return "event.list*";
-            case EventType.IMAGE:
-                return "event.image*";
-            case EventType.UNKNOWN:
-                return "event.unknown*";
-            case EventType.ALL:
-            default:
-                return "event*";
-        }
+    public Mono<EventRecord> getCachedRecordOrEmpty(String id) {
+        return eventCache.get(id);
     }
 }
@@ -11,54 +11,164 @@
  * distributed under the License is distributed on an "AS IS" BASIS,
  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
  * See the License for the specific language governing permissions and limitations under the License.
- *  
+ *
  */
 
 package com.ford.labs.daab.subscribers;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.ford.labs.daab.event.EventType;
-import com.ford.labs.daab.event.Event;
+import com.ford.labs.daab.cache.EventRecord;
+import com.ford.labs.daab.radiator.RadiatorConfigurationService;
+import com.ford.labs.daab.subscribers.model.SubscriptionRequest;
+import org.slf4j.Logger;
 import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.WebSocketMessage;
 import org.springframework.web.reactive.socket.WebSocketSession;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
-import java.util.Objects;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 @Component
 public class EventWebSocketHandler implements WebSocketHandler {
+    private static final Logger log = org.slf4j.LoggerFactory.getLogger(EventWebSocketHandler.class);
+    private static final Pattern VERSION = Pattern.compile("\\d{1,18}");
+
     private EventSubscriptionService eventSubscriptionService;
+    private RadiatorConfigurationService radiatorConfigurationService;
+    private EventConflator eventConflator;
     private ObjectMapper mapper;
 
     public EventWebSocketHandler(
             EventSubscriptionService eventSubscriptionService,
+            RadiatorConfigurationService radiatorConfigurationService,
+            EventConflator eventConflator,
             ObjectMapper mapper
     ) {
         this.eventSubscriptionService = eventSubscriptionService;
+        this.radiatorConfigurationService = radiatorConfigurationService;
+        this.eventConflator = eventConflator;
         this.mapper = mapper;
     }
 
     @Override
     public Mono<Void> handle(WebSocketSession session) {
+        MultiValueMap<String, String> parameters = queryParameters(session);
+        boolean batch = Boolean.parseBoolean(parameters.getFirst("batch"));
+        long since = parseVersion(parameters.getFirst("since"));
+
+        Flux<EventFilter> filters = Flux.merge(
+                initialFilters(parameters),
+                session.receive()
+                        .map(WebSocketMessage::getPayloadAsText)
+                        .flatMap(this::toFilter)
+        );
+
         return session.send(
-                Flux.merge(
-                        eventSubscriptionService.getCachedEvents(),
-                        eventSubscriptionService.subscribe(EventType.ALL)
-                )
-                        .map(this::eventToString)
-                        .filter(Objects::nonNull)
-                        .map(session::textMessage)
+                filters.index().switchMap(indexed -> {
+                    long resumeFrom = indexed.getT1() == 0 ? since : 0;
+                    return batch
+                            ? snapshotFrameThenEvents(session, indexed.getT2(), resumeFrom)
+                            : eventsOneFramePerEvent(session, indexed.getT2(), resumeFrom);
+                })
+        );
+    }
+
+    private Flux<WebSocketMessage> snapshotFrameThenEvents(WebSocketSession session, EventFilter filter, long since) {
+        MonoProcessor<Void> subscribed = MonoProcessor.create();
+        Flux<EventRecord> live = eventSubscriptionService.subscribeToRecords(filter);
+
+        return Flux.mergeSequential(
+                cachedFrame(filter, since)
+                        .delaySubscription(subscribed)
+                        .map(frame -> toTextMessage(session, frame)),
+                eventConflator.conflate(Flux.from(subscriber -> {
+                    live.subscribe(subscriber);
+                    subscribed.onComplete();
+                }), eventSubscriptionService.getCachedRecords(filter))
+                        .map(record -> toTextMessage(session, record.getJson()))
         );
     }
 
-    private String eventToString(Event event) {
+    private Flux<WebSocketMessage> eventsOneFramePerEvent(WebSocketSession session, EventFilter filter, long since) {
+        return eventConflator.conflate(Flux.merge(
+                eventSubscriptionService.subscribeToRecords(filter),
+                cachedRecords(filter, since)
+        ), eventSubscriptionService.getCachedRecords(filter))
+                .map(record -> toTextMessage(session, record.getJson()));
+    }
+
+    private Mono<byte[]> cachedFrame(EventFilter filter, long since) {
+        return since > 0
+                ? eventSubscriptionService.getCachedFrameChangedSince(filter, since)
+                : eventSubscriptionService.getCachedSnapshotFrame(filter);
+    }
+
+    private Flux<EventRecord> cachedRecords(EventFilter filter, long since) {
+        return since > 0
+                ? eventSubscriptionService.getCachedRecordsChangedSince(filter, since)
+                : eventSubscriptionService.getCachedRecords(filter);
+    }
+
+    private Mono<EventFilter> toFilter(String payload) {
         try {
-            return mapper.writeValueAsString(event);
+            return Mono.just(EventFilter.of(mapper.readValue(payload, SubscriptionRequest.class)));
         } catch (JsonProcessingException e) {
-            return null;
+            log.warn(String.format("Ignoring invalid subscription request: %s", payload));
+            return Mono.empty();
         }
     }
+
+    private Flux<EventFilter> initialFilters(MultiValueMap<String, String> parameters) {
+        if (parameters.containsKey("radiator") || parameters.containsKey("page")) {
+            String page = parameters.getFirst("page") == null ? null : UriUtils.decode(parameters.getFirst("page"), UTF_8);
+
+            return radiatorConfigurationService.getRoutes()
+                    .map(routes -> EventFilter.ofIds(routes.getIds(page)));
+        }
+
+        return Flux.just(EventFilter.of(
+                splitParameter(parameters.get("ids")),
+                splitParameter(parameters.get("prefixes")),
+                splitParameter(parameters.get("types"))
+        ));
+    }
+
+    private static long parseVersion(String value) {
+        return value != null && VERSION.matcher(value).matches() ? Long.parseLong(value) : 0;
+    }
+
+    private static MultiValueMap<String, String> queryParameters(WebSocketSession session) {
+        return UriComponentsBuilder.fromUri(session.getHandshakeInfo().getUri())
+                .build()
+                .getQueryParams();
+    }
+
+    private static List<String> splitParameter(List<String> values) {
+        if (values == null) {
+            return List.of();
+        }
+
+        return values.stream()
+                .filter(value -> value != null && !value.isEmpty())
+                .flatMap(value -> Arrays.stream(UriUtils.decode(value, UTF_8).split(",")))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    private static WebSocketMessage toTextMessage(WebSocketSession session, byte[] json) {
+        return new WebSocketMessage(WebSocketMessage.Type.TEXT, session.bufferFactory().wrap(json));
+    }
 }
@@ -0,0 +1,34 @@
+--
+-- Copyright (c) 2020 Ford Motor Company
+--
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+--
+--     http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and limitations under the License.
+--
+
+-- KEYS[1] event hash, KEYS[2] version counter
+-- ARGV[1] event id (hash field), ARGV[2] tombstone without a version, ARGV[3] deletion channel
+-- Returns 0 if there was no event to delete, otherwise the version assigned to the deletion.
+-- Deletions take a version from the same counter as published events, so caches and subscribers can order a tombstone
+-- against any copy of the event they still hold.
+
+if redis.call('HDEL', KEYS[1], ARGV[1]) == 0 then
+    return 0
+end
+
+if redis.call('EXISTS', KEYS[2]) == 0 then
+    local time = redis.call('TIME')
+    redis.call('SET', KEYS[2], time[1] .. string.format('%06d', tonumber(time[2])))
+end
+
+local version = redis.call('INCR', KEYS[2])
+redis.call('PUBLISH', ARGV[3], '{"version":' .. string.format('%d', version) .. ',' .. string.sub(ARGV[2], 2))
+
+return version
@@ -0,0 +1,52 @@
+--
+-- Copyright (c) 2020 Ford Motor Company
+--
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+--
+--     http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and limitations under the License.
+--
+
+-- KEYS[1] event hash, KEYS[2] version counter, KEYS[3] event history stream
+-- ARGV[1] event id (hash field), ARGV[2] serialized event without a version, ARGV[3] channel
+-- ARGV[4] history max length, ARGV[5] oldest history entry id to keep (0 disables either limit)
+-- Returns -1 if the stored event is unchanged, otherwise the version assigned to the event.
+-- The version is spliced in as the first property so stored and published events carry it.
+-- A missing version counter (first run, FLUSHALL, restart without persistence, eviction) is seeded from the server
+-- clock in microseconds, so versions keep increasing across resets and caches and clients never see one go backwards.
+-- History is trimmed approximately so Redis can drop whole stream nodes, and before PUBLISH so a trim that fails
+-- (MINID needs Redis 6.2) cannot fail the publish after the event is already stored.
+
+local current = redis.call('HGET', KEYS[1], ARGV[1])
+if current and string.gsub(current, '^{"version":%d+,', '{', 1) == ARGV[2] then
+    return -1
+end
+
+if redis.call('EXISTS', KEYS[2]) == 0 then
+    local time = redis.call('TIME')
+    redis.call('SET', KEYS[2], time[1] .. string.format('%06d', tonumber(time[2])))
+end
+
+local version = redis.call('INCR', KEYS[2])
+local versioned = '{"version":' .. string.format('%d', version) .. ',' .. string.sub(ARGV[2], 2)
+
+redis.call('HSET', KEYS[1], ARGV[1], versioned)
+
+if tonumber(ARGV[4]) > 0 then
+    redis.call('XADD', KEYS[3], 'MAXLEN', '~', ARGV[4], '*', 'event', versioned)
+else
+    redis.call('XADD', KEYS[3], '*', 'event', versioned)
+end
+if ARGV[5] ~= '0' then
+    redis.pcall('XTRIM', KEYS[3], 'MINID', '~', ARGV[5])
+end
+
+redis.call('PUBLISH', ARGV[3], versioned)
+
+return version
@@ -0,0 +1,376 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.cache;
+
+import com.ford.labs.daab.event.Event;
+import com.ford.labs.daab.event.HealthEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveHashOperations;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class EventCacheTest {
+    ReactiveRedisTemplate mockEventBytesTemplate = mock(ReactiveRedisTemplate.class);
+    ReactiveHashOperations mockEventHashOperations = mock(ReactiveHashOperations.class);
+
+    Jackson2JsonRedisSerializer<Event> eventSerializer = new Jackson2JsonRedisSerializer<>(Event.class);
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    EventCache subject;
+
+    @BeforeEach
+    void setup() {
+        subject = new EventCache(
+                mockEventBytesTemplate,
+                new EventStream(mockEventBytesTemplate, eventSerializer),
+                eventSerializer,
+                meterRegistry,
+                1024
+        );
+
+        when(mockEventBytesTemplate.opsForHash()).thenReturn(mockEventHashOperations);
+    }
+
+    @Test
+    void get_ifNotBootstrapped_readsFromRedisAndCachesResult() {
+        HealthEvent event = healthEvent("health.one", HealthEvent.Status.UP);
+        when(mockEventHashOperations.get("event", "health.one")).thenReturn(Mono.just(serialize(event)));
+
+        StepVerifier.create(subject.get("health.one").map(EventRecord::getEvent))
+                .expectNext(event)
+                .verifyComplete();
+        StepVerifier.create(subject.get("health.one").map(EventRecord::getEvent))
+                .expectNext(event)
+                .verifyComplete();
+
+        verify(mockEventHashOperations, times(1)).get("event", "health.one");
+        assertThat(meterRegistry.get("event.cache.requests").tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("event.cache.requests").tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void bootstrap_servesSnapshotAndMissingEventsFromMemory() {
+        HealthEvent first = healthEvent("health.one", HealthEvent.Status.UP);
+        HealthEvent second = healthEvent("health.two", HealthEvent.Status.DOWN);
+        when(mockEventHashOperations.entries("event")).thenReturn(Flux.just(entry(first), entry(second)));
+
+        StepVerifier.create(subject.bootstrap())
+                .verifyComplete();
+
+        StepVerifier.create(subject.snapshot().map(EventRecord::getEvent))
+                .expectNext(first, second)
+                .verifyComplete();
+        StepVerifier.create(subject.get("health.three"))
+                .verifyComplete();
+
+        verify(mockEventHashOperations, times(1)).entries("event");
+        verify(mockEventHashOperations, never()).get(anyString(), anyString());
+    }
+
+    @Test
+    void bootstrap_doesNotReplaceEventsReceivedWhileLoading() {
+        HealthEvent stale = healthEvent("health.one", HealthEvent.Status.UP);
+        HealthEvent fresh = healthEvent("health.one", HealthEvent.Status.DOWN);
+        when(mockEventHashOperations.entries("event")).thenReturn(Flux.just(entry(stale)));
+
+        subject.put(fresh, serialize(fresh));
+        StepVerifier.create(subject.bootstrap())
+                .verifyComplete();
+
+        StepVerifier.create(subject.get("health.one").map(EventRecord::getEvent))
+                .expectNext(fresh)
+                .verifyComplete();
+    }
+
+    @Test
+    void snapshotFrame_isBuiltOnceUntilAnEventChanges() {
+        HealthEvent first = healthEvent("health.one", HealthEvent.Status.UP);
+        HealthEvent second = healthEvent("health.two", HealthEvent.Status.DOWN);
+        when(mockEventHashOperations.entries("event")).thenReturn(Flux.just(entry(first)));
+
+        StepVerifier.create(subject.bootstrap())
+                .verifyComplete();
+
+        byte[] frame = subject.snapshotFrame().block();
+        assertThat(new String(frame)).isEqualTo("[" + new String(serialize(first)) + "]");
+        assertThat(subject.snapshotFrame().block()).isSameAs(frame);
+
+        subject.put(second, serialize(second));
+
+        assertThat(new String(subject.snapshotFrame().block()))
+                .isEqualTo("[" + new String(serialize(first)) + "," + new String(serialize(second)) + "]");
+        verify(mockEventHashOperations, times(1)).entries("event");
+    }
+
+    @Test
+    void put_overMemoryBudget_evictsLeastRecentlyUsedAndFallsBackToRedis() {
+        HealthEvent first = healthEvent("health.one", HealthEvent.Status.UP);
+        HealthEvent second = healthEvent("health.two", HealthEvent.Status.UP);
+        when(mockEventHashOperations.entries("event")).thenReturn(Flux.empty(), Flux.just(entry(second), entry(first)));
+
+        StepVerifier.create(subject.bootstrap())
+                .verifyComplete();
+        for (int i = 0; i < 10; i++) {
+            subject.put(healthEvent("health.filler" + i, HealthEvent.Status.UP), serialize(first));
+        }
+
+        assertThat(subject.bytes()).isLessThanOrEqualTo(1024);
+        assertThat(subject.isComplete()).isFalse();
+        assertThat(meterRegistry.get("event.cache.evictions").counter().count()).isGreaterThan(0);
+
+        StepVerifier.create(subject.snapshot().map(EventRecord::getId))
+                .expectNext("health.two", "health.one")
+                .verifyComplete();
+    }
+
+    @Test
+    void snapshot_afterTrim_readsFromRedisWithoutChurningTheCache() {
+        HealthEvent first = healthEvent("health.one", HealthEvent.Status.UP);
+        HealthEvent second = healthEvent("health.two", HealthEvent.Status.UP);
+        when(mockEventHashOperations.entries("event")).thenReturn(Flux.empty(), Flux.just(entry(second), entry(first)));
+
+        StepVerifier.create(subject.bootstrap())
+                .verifyComplete();
+        for (int i = 0; i < 10; i++) {
+            subject.put(healthEvent("health.filler" + i, HealthEvent.Status.UP), serialize(first));
+        }
+        int size = subject.size();
+        double evicted = meterRegistry.get("event.cache.evictions").counter().count();
+
+        StepVerifier.create(subject.snapshot().map(EventRecord::getId))
+                .expectNext("health.two", "health.one")
+                .verifyComplete();
+        assertThat(new String(subject.snapshotFrame().block()))
+                .isEqualTo("[" + new String(serialize(second)) + "," + new String(serialize(first)) + "]");
+
+        assertThat(subject.size()).isEqualTo(size);
+        assertThat(subject.isComplete()).isFalse();
+        assertThat(meterRegistry.get("event.cache.evictions").counter().count()).isEqualTo(evicted);
+    }
+
+    @Test
+    void listen_keepsCacheCurrentFromPubSubWithoutDecodingEvents() {
+        HealthEvent event = healthEvent("health.one", HealthEvent.Status.UP);
+        Jackson2JsonRedisSerializer<Event> mockEventSerializer = mock(Jackson2JsonRedisSerializer.class);
+        subject = new EventCache(
+                mockEventBytesTemplate,
+                new EventStream(mockEventBytesTemplate, mockEventSerializer),
+                mockEventSerializer,
+                meterRegistry,
+                1024
+        );
+
+        when(mockEventBytesTemplate.listenToPattern("event*")).thenReturn(Flux.just(
+                new ReactiveSubscription.PatternMessage<>("event*", "event.health.one", serialize(event)),
+                new ReactiveSubscription.PatternMessage<>("event*", EventStream.DELETED_CHANNEL_PREFIX + "health.two", EventRecord.tombstone("health.two", 2).getJson())
+        ));
+        subject.put(healthEvent("health.two", HealthEvent.Status.UP), serialize(event));
+
+        StepVerifier.create(subject.listen())
+                .verifyComplete();
+
+        StepVerifier.create(subject.get("health.one").map(EventRecord::getJsonString))
+                .expectNext(new String(serialize(event)))
+                .verifyComplete();
+        assertThat(subject.size()).isEqualTo(1);
+        verifyNoInteractions(mockEventSerializer);
+    }
+
+    @Test
+    void listen_doesNotReplaceNewerVersion() {
+        HealthEvent event = healthEvent("health.one", HealthEvent.Status.UP);
+        byte[] newer = EventRecord.withVersion(serialize(event), 3);
+        byte[] older = EventRecord.withVersion(serialize(healthEvent("health.one", HealthEvent.Status.DOWN)), 2);
+
+        when(mockEventBytesTemplate.listenToPattern("event*"))
+                .thenReturn(Flux.just(new ReactiveSubscription.PatternMessage<>("event*", "event.health.one", older)));
+        subject.put(event, newer);
+
+        StepVerifier.create(subject.listen())
+                .verifyComplete();
+
+        StepVerifier.create(subject.get("health.one").map(EventRecord::getVersion))
+                .expectNext(3L)
+                .verifyComplete();
+    }
+
+    @Test
+    void changedSince_returnsOnlyNewerVersions() {
+        HealthEvent first = healthEvent("health.one", HealthEvent.Status.UP);
+        HealthEvent second = healthEvent("health.two", HealthEvent.Status.UP);
+        when(mockEventHashOperations.entries("event")).thenReturn(Flux.just(
+                Map.entry("health.one", EventRecord.withVersion(serialize(first), 4)),
+                Map.entry("health.two", EventRecord.withVersion(serialize(second), 7))
+        ));
+
+        StepVerifier.create(subject.bootstrap())
+                .verifyComplete();
+
+        StepVerifier.create(subject.changedSince(5).map(EventRecord::getId))
+                .expectNext("health.two")
+                .verifyComplete();
+        StepVerifier.create(subject.changedSince(7))
+                .verifyComplete();
+    }
+
+    @Test
+    void changedSince_withUnknownToken_returnsSnapshot() {
+        HealthEvent first = healthEvent("health.one", HealthEvent.Status.UP);
+        HealthEvent second = healthEvent("health.two", HealthEvent.Status.UP);
+        when(mockEventHashOperations.entries("event")).thenReturn(Flux.just(
+                Map.entry("health.one", EventRecord.withVersion(serialize(first), 4)),
+                Map.entry("health.two", EventRecord.withVersion(serialize(second), 7))
+        ));
+
+        StepVerifier.create(subject.bootstrap())
+                .verifyComplete();
+
+        StepVerifier.create(subject.changedSince(8))
+                .expectNextCount(2)
+                .verifyComplete();
+    }
+
+    @Test
+    void changedSince_withTokenFromBeforeADeletion_returnsTombstone() {
+        HealthEvent first = healthEvent("health.one", HealthEvent.Status.UP);
+        HealthEvent second = healthEvent("health.two", HealthEvent.Status.UP);
+        when(mockEventHashOperations.entries("event")).thenReturn(Flux.just(
+                Map.entry("health.one", EventRecord.withVersion(serialize(first), 4)),
+                Map.entry("health.two", EventRecord.withVersion(serialize(second), 7))
+        ));
+
+        StepVerifier.create(subject.bootstrap())
+                .verifyComplete();
+        subject.evict(EventRecord.tombstone("health.two", 8));
+
+        StepVerifier.create(subject.changedSince(7))
+                .assertNext(record -> {
+                    assertThat(record.getId()).isEqualTo("health.two");
+                    assertThat(record.isDeleted()).isTrue();
+                    assertThat(record.getVersion()).isEqualTo(8);
+                })
+                .verifyComplete();
+        StepVerifier.create(subject.snapshot().map(EventRecord::getId))
+                .expectNext("health.one")
+                .verifyComplete();
+    }
+
+    @Test
+    void changedSince_withTokenFromBeforeAnInvalidation_returnsSnapshot() {
+        HealthEvent first = healthEvent("health.one", HealthEvent.Status.UP);
+        HealthEvent second = healthEvent("health.two", HealthEvent.Status.UP);
+        when(mockEventHashOperations.entries("event")).thenReturn(Flux.just(
+                Map.entry("health.one", EventRecord.withVersion(serialize(first), 4)),
+                Map.entry("health.two", EventRecord.withVersion(serialize(second), 7))
+        ));
+
+        StepVerifier.create(subject.bootstrap())
+                .verifyComplete();
+        subject.invalidate();
+        StepVerifier.create(subject.bootstrap())
+                .verifyComplete();
+
+        StepVerifier.create(subject.changedSince(7))
+                .expectNextCount(2)
+                .verifyComplete();
+    }
+
+    @Test
+    void put_afterDeletion_dropsTombstone() {
+        HealthEvent event = healthEvent("health.one", HealthEvent.Status.UP);
+        when(mockEventHashOperations.entries("event")).thenReturn(Flux.just(
+                Map.entry("health.one", EventRecord.withVersion(serialize(event), 4))
+        ));
+
+        StepVerifier.create(subject.bootstrap())
+                .verifyComplete();
+        subject.evict(EventRecord.tombstone("health.one", 5));
+        subject.put(event, EventRecord.withVersion(serialize(event), 6));
+
+        StepVerifier.create(subject.changedSince(4).map(EventRecord::isDeleted))
+                .expectNext(false)
+                .verifyComplete();
+    }
+
+    @Test
+    void bootstrap_afterDeletion_doesNotRestoreACopyReadBeforeIt() {
+        HealthEvent event = healthEvent("health.one", HealthEvent.Status.UP);
+        when(mockEventHashOperations.entries("event")).thenReturn(Flux.just(
+                Map.entry("health.one", EventRecord.withVersion(serialize(event), 4))
+        ));
+
+        subject.evict(EventRecord.tombstone("health.one", 5));
+        StepVerifier.create(subject.bootstrap())
+                .verifyComplete();
+
+        assertThat(subject.size()).isEqualTo(0);
+        StepVerifier.create(subject.changedSince(4).map(EventRecord::isDeleted))
+                .expectNext(true)
+                .verifyComplete();
+    }
+
+    @Test
+    void evict_withTombstoneOlderThanTheCachedEvent_keepsTheEvent() {
+        HealthEvent event = healthEvent("health.one", HealthEvent.Status.UP);
+        subject.put(event, EventRecord.withVersion(serialize(event), 6));
+
+        subject.evict(EventRecord.tombstone("health.one", 5));
+
+        assertThat(subject.size()).isEqualTo(1);
+    }
+
+    @Test
+    void evict_removesEvent() {
+        HealthEvent event = healthEvent("health.one", HealthEvent.Status.UP);
+        subject.put(event, serialize(event));
+
+        subject.evict(EventRecord.tombstone("health.one", 1));
+
+        assertThat(subject.size()).isEqualTo(0);
+        assertThat(subject.bytes()).isEqualTo(0);
+    }
+
+    private byte[] serialize(Event event) {
+        return eventSerializer.serialize(event);
+    }
+
+    private Map.Entry<String, byte[]> entry(Event event) {
+        return Map.entry(event.getId(), serialize(event));
+    }
+
+    private static HealthEvent healthEvent(String id, HealthEvent.Status status) {
+        HealthEvent event = new HealthEvent();
+        event.setId(id);
+        event.setName(id);
+        event.setStatus(status);
+        event.setTime("2020-01-01T00:00:00.000Z");
+        return event;
+    }
+}
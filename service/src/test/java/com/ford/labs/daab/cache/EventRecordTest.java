@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.cache;
+
+import com.ford.labs.daab.event.Event;
+import com.ford.labs.daab.event.HealthEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class EventRecordTest {
+    @Test
+    void toJsonArray_concatenatesRecords() {
+        assertThat(new String(EventRecord.toJsonArray(List.of()))).isEqualTo("[]");
+        assertThat(new String(EventRecord.toJsonArray(List.of(record("a", "{\"id\":\"a\"}")))))
+                .isEqualTo("[{\"id\":\"a\"}]");
+        assertThat(new String(EventRecord.toJsonArray(List.of(record("a", "{\"id\":\"a\"}"), record("b", "{\"id\":\"b\"}")))))
+                .isEqualTo("[{\"id\":\"a\"},{\"id\":\"b\"}]");
+    }
+
+    @Test
+    void getEvent_decodesOnlyOnce() {
+        HealthEvent event = new HealthEvent();
+        event.setId("health.one");
+        event.setStatus(HealthEvent.Status.UP);
+        RedisSerializer<Event> eventSerializer = spy(new Jackson2JsonRedisSerializer<>(Event.class));
+        EventRecord subject = new EventRecord("health.one", eventSerializer.serialize(event), eventSerializer);
+
+        assertThat(subject.getEvent()).isEqualTo(event);
+        assertThat(subject.getEvent()).isSameAs(subject.getEvent());
+        verify(eventSerializer, times(1)).deserialize(any());
+    }
+
+    @Test
+    void withVersion_addsVersionAsFirstProperty() {
+        byte[] versioned = EventRecord.withVersion("{\"id\":\"a\"}".getBytes(), 42);
+
+        assertThat(new String(versioned)).isEqualTo("{\"version\":42,\"id\":\"a\"}");
+        assertThat(record("a", new String(versioned)).getVersion()).isEqualTo(42);
+        assertThat(record("a", "{\"id\":\"a\"}").getVersion()).isEqualTo(0);
+    }
+
+    private static EventRecord record(String id, String json) {
+        return new EventRecord(id, json.getBytes(), (Event) null);
+    }
+}
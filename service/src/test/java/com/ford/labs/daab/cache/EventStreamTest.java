@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+
+package com.ford.labs.daab.cache;
+
+import com.ford.labs.daab.event.Event;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import reactor.core.publisher.DirectProcessor;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class EventStreamTest {
+    ReactiveRedisTemplate mockEventBytesTemplate = mock(ReactiveRedisTemplate.class);
+
+    EventStream subject = new EventStream(mockEventBytesTemplate, new Jackson2JsonRedisSerializer<>(Event.class));
+
+    @Test
+    void awaitSubscribed_completesOnceTheMarkerComesBackThroughThePatternSubscription() {
+        DirectProcessor<ReactiveSubscription.Message<String, byte[]>> messages = DirectProcessor.create();
+        when(mockEventBytesTemplate.listenToPattern("event*")).thenReturn(messages);
+        when(mockEventBytesTemplate.convertAndSend(eq(EventStream.SYNC_CHANNEL), any()))
+                .thenReturn(Mono.just(0L))
+                .thenAnswer(invocation -> Mono.fromRunnable(() -> messages.onNext(
+                        new ReactiveSubscription.PatternMessage<>("event*", EventStream.SYNC_CHANNEL, invocation.getArgument(1))
+                )).thenReturn(1L));
+
+        StepVerifier.create(subject.awaitSubscribed())
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        verify(mockEventBytesTemplate, times(2)).convertAndSend(eq(EventStream.SYNC_CHANNEL), any());
+    }
+
+    @Test
+    void awaitSubscribed_ignoresMarkersFromOtherNodes() {
+        DirectProcessor<ReactiveSubscription.Message<String, byte[]>> messages = DirectProcessor.create();
+        when(mockEventBytesTemplate.listenToPattern("event*")).thenReturn(messages);
+        when(mockEventBytesTemplate.convertAndSend(eq(EventStream.SYNC_CHANNEL), any()))
+                .thenAnswer(invocation -> Mono.fromRunnable(() -> messages.onNext(
+                        new ReactiveSubscription.PatternMessage<>("event*", EventStream.SYNC_CHANNEL, "other".getBytes())
+                )).thenReturn(1L));
+
+        StepVerifier.create(subject.awaitSubscribed())
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(300))
+                .thenCancel()
+                .verify();
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.config;
+
+import com.ford.labs.daab.WireMockExtension;
+import com.ford.labs.daab.http.HttpClientProfile;
+import io.micrometer.core.instrument.Metrics;
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebClientConfigurationTest {
+    @RegisterExtension
+    static WireMockExtension wireMock = new WireMockExtension();
+
+    WebClientConfiguration subject = new WebClientConfiguration("", "");
+
+    @Test
+    void client_failsResponsesThatStallLongerThanTheReadTimeout() throws Exception {
+        wireMock.getServer().stubFor(get(urlEqualTo("/hung")).willReturn(aResponse().withStatus(200).withFixedDelay(2000)));
+        HttpClientProfile profile = new HttpClientProfile();
+        profile.setReadTimeout(Duration.ofMillis(200));
+
+        StepVerifier.create(webClient("hung", profile).get().uri(WireMockExtension.WIREMOCK_URL + "/hung").retrieve().bodyToMono(String.class))
+                .expectError(ReadTimeoutException.class)
+                .verify(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void client_exposesConnectionPoolMetricsPerProfile() throws Exception {
+        webClient("metered", new HttpClientProfile()).get().uri(WireMockExtension.WIREMOCK_URL + "/up").exchange().flatMap(ClientResponse::releaseBody).block();
+
+        assertThat(Metrics.globalRegistry.getMeters())
+                .extracting(meter -> meter.getId().getName())
+                .contains("reactor.netty.connection.provider.metered.active.connections");
+    }
+
+    private WebClient webClient(String name, HttpClientProfile profile) throws Exception {
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(subject.client(name, profile)))
+                .build();
+    }
+}
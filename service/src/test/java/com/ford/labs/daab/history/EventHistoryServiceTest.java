@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.history;
+
+import com.ford.labs.daab.config.EventRedisTemplateConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStreamOperations;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class EventHistoryServiceTest {
+    ReactiveRedisTemplate mockEventBytesTemplate = mock(ReactiveRedisTemplate.class);
+    ReactiveStreamOperations mockStreamOperations = mock(ReactiveStreamOperations.class);
+    RedisSerializationContext<String, byte[]> eventHistorySerializationContext = new EventRedisTemplateConfig().eventHistorySerializationContext();
+
+    EventHistoryService subject;
+
+    @BeforeEach
+    void setup() {
+        subject = new EventHistoryService(mockEventBytesTemplate, eventHistorySerializationContext);
+
+        when(mockEventBytesTemplate.opsForStream(eventHistorySerializationContext)).thenReturn(mockStreamOperations);
+    }
+
+    @Test
+    void getHistory_readsOnePageFromPosition() {
+        when(mockStreamOperations.range(eq("event-history.job.one"), any(Range.class), any(RedisZSetCommands.Limit.class)))
+                .thenReturn(Flux.just(entry("1600000000000-0", "{\"version\":1}"), entry("1600000000500-3", "{\"version\":2}")));
+
+        StepVerifier.create(subject.getHistory("job.one", "1600000000000", 2))
+                .assertNext(page -> {
+                    assertThat(page.getEntries()).extracting("position").containsExactly("1600000000000-0", "1600000000500-3");
+                    assertThat(page.getEntries()).extracting("event").containsExactly("{\"version\":1}", "{\"version\":2}");
+                    assertThat(page.getNext()).isEqualTo("1600000000500-4");
+                })
+                .verifyComplete();
+
+        verify(mockStreamOperations).range(
+                eq("event-history.job.one"),
+                argThat((Range<String> range) -> range.getLowerBound().getValue().get().equals("1600000000000")
+                        && range.getLowerBound().isInclusive()
+                        && !range.getUpperBound().isBounded()),
+                argThat((RedisZSetCommands.Limit limit) -> limit.getCount() == 2)
+        );
+    }
+
+    @Test
+    void getHistory_onLastPage_hasNoNextPosition() {
+        when(mockStreamOperations.range(eq("event-history.job.one"), any(Range.class), any(RedisZSetCommands.Limit.class)))
+                .thenReturn(Flux.just(entry("1600000000000-0", "{\"version\":1}")));
+
+        StepVerifier.create(subject.getHistory("job.one", "0", 2))
+                .assertNext(page -> {
+                    assertThat(page.getEntries()).hasSize(1);
+                    assertThat(page.getNext()).isNull();
+                })
+                .verifyComplete();
+    }
+
+    private static MapRecord<String, String, byte[]> entry(String position, String event) {
+        return StreamRecords.<String, String, byte[]>mapBacked(Map.of("event", event.getBytes()))
+                .withStreamKey("event-history.job.one")
+                .withId(RecordId.of(position));
+    }
+}
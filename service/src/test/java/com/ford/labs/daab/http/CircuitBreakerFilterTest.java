@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.http;
+
+import com.ford.labs.daab.config.EventClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CircuitBreakerFilterTest {
+    EventClock mockEventClock = mock(EventClock.class);
+    Instant now = Instant.parse("2020-01-01T00:00:00Z");
+
+    List<ClientRequest> requests = new ArrayList<>();
+    boolean upstreamDown;
+    HttpStatus upstreamStatus = HttpStatus.OK;
+
+    CircuitBreakerFilter subject;
+    WebClient client;
+
+    @BeforeEach
+    void setup() {
+        when(mockEventClock.now()).thenAnswer(invocation -> now);
+        subject = new CircuitBreakerFilter(mockEventClock, 4, 4, 50, Duration.ofSeconds(60), 1);
+        client = WebClient.builder()
+                .exchangeFunction(request -> {
+                    requests.add(request);
+                    return upstreamDown
+                            ? Mono.error(new ConnectException("Connection refused"))
+                            : Mono.just(ClientResponse.create(upstreamStatus).body("ok").build());
+                })
+                .filter(subject)
+                .build();
+    }
+
+    @Test
+    void whenFailureRateReachesTheThreshold_opensAndRejectsWithoutCallingTheHost() {
+        get("http://dead-host/a");
+        get("http://dead-host/a");
+        upstreamDown = true;
+        get("http://dead-host/a");
+        get("http://dead-host/b");
+
+        assertThat(subject.getStates().get("dead-host").getState()).isEqualTo(HostCircuitBreaker.State.OPEN);
+
+        StepVerifier.create(client.get().uri("http://dead-host/a").retrieve().bodyToMono(String.class))
+                .verifyError(CircuitOpenException.class);
+        assertThat(requests).hasSize(4);
+    }
+
+    @Test
+    void countsServerErrorResponsesAsFailures() {
+        get("http://dead-host/a");
+        upstreamStatus = HttpStatus.NOT_FOUND;
+        get("http://dead-host/a");
+        upstreamStatus = HttpStatus.BAD_GATEWAY;
+        get("http://dead-host/a");
+        upstreamStatus = HttpStatus.SERVICE_UNAVAILABLE;
+        get("http://dead-host/a");
+
+        assertThat(subject.getStates().get("dead-host").getState()).isEqualTo(HostCircuitBreaker.State.OPEN);
+        assertThat(subject.getStates().get("dead-host").getFailureRate()).isEqualTo(50.0);
+
+        StepVerifier.create(client.get().uri("http://dead-host/a").retrieve().bodyToMono(String.class))
+                .verifyError(CircuitOpenException.class);
+        assertThat(requests).hasSize(4);
+    }
+
+    @Test
+    void tracksEachHostSeparately() {
+        upstreamDown = true;
+        for (int i = 0; i < 4; i++) {
+            get("http://dead-host/a");
+        }
+        upstreamDown = false;
+
+        StepVerifier.create(client.get().uri("http://live-host/a").retrieve().bodyToMono(String.class))
+                .expectNext("ok")
+                .verifyComplete();
+        assertThat(subject.getStates().get("live-host").getState()).isEqualTo(HostCircuitBreaker.State.CLOSED);
+        assertThat(subject.getStates().get("dead-host").getFailureRate()).isEqualTo(100.0);
+    }
+
+    @Test
+    void afterTheOpenDuration_letsOneProbeThroughAndClosesWhenItSucceeds() {
+        upstreamDown = true;
+        for (int i = 0; i < 4; i++) {
+            get("http://dead-host/a");
+        }
+
+        now = now.plusSeconds(60);
+        upstreamDown = false;
+        get("http://dead-host/a");
+
+        assertThat(requests).hasSize(5);
+        assertThat(subject.getStates().get("dead-host").getState()).isEqualTo(HostCircuitBreaker.State.CLOSED);
+        assertThat(subject.getStates().get("dead-host").getCalls()).isEqualTo(0);
+    }
+
+    @Test
+    void whenTheHalfOpenProbeFails_opensAgain() {
+        upstreamDown = true;
+        for (int i = 0; i < 4; i++) {
+            get("http://dead-host/a");
+        }
+
+        now = now.plusSeconds(60);
+        get("http://dead-host/a");
+        get("http://dead-host/a");
+
+        assertThat(requests).hasSize(5);
+        assertThat(subject.getStates().get("dead-host").getState()).isEqualTo(HostCircuitBreaker.State.OPEN);
+        assertThat(subject.getStates().get("dead-host").getOpenedAt()).isEqualTo(now);
+    }
+
+    private void get(String url) {
+        client.get()
+                .uri(url)
+                .retrieve()
+                .bodyToMono(String.class)
+                .onErrorResume(error -> Mono.empty())
+                .block();
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.http;
+
+import com.ford.labs.daab.config.EventClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HttpCacheFilterTest {
+    EventClock mockEventClock = mock(EventClock.class);
+    Instant now = Instant.parse("2020-01-01T00:00:00Z");
+
+    List<ClientRequest> requests = new ArrayList<>();
+    LinkedList<ClientResponse> responses = new LinkedList<>();
+
+    HttpCacheFilter subject;
+    WebClient client;
+
+    @BeforeEach
+    void setup() {
+        when(mockEventClock.now()).thenAnswer(invocation -> now);
+        subject = new HttpCacheFilter(mockEventClock, 2, 1024);
+        client = WebClient.builder()
+                .exchangeFunction(request -> {
+                    requests.add(request);
+                    return Mono.just(responses.removeFirst());
+                })
+                .filter(subject)
+                .build();
+    }
+
+    @Test
+    void get_whileResponseIsFresh_servesItFromCache() {
+        responses.add(ok("first").header(HttpHeaders.CACHE_CONTROL, "public, max-age=60").build());
+
+        ResponseEntity<String> first = get("http://host/resource");
+        now = now.plusSeconds(59);
+        ResponseEntity<String> second = get("http://host/resource");
+
+        assertThat(requests).hasSize(1);
+        assertThat(first.getBody()).isEqualTo("first");
+        assertThat(HttpCacheFilter.isUnchanged(first)).isFalse();
+        assertThat(second.getBody()).isEqualTo("first");
+        assertThat(second.getHeaders().getFirst(HttpCacheFilter.CACHE_STATUS_HEADER)).isEqualTo(HttpCacheFilter.HIT);
+        assertThat(HttpCacheFilter.isUnchanged(second)).isTrue();
+    }
+
+    @Test
+    void get_whenStale_revalidatesWithTheStoredValidators() {
+        responses.add(ok("first")
+                .header(HttpHeaders.CACHE_CONTROL, "max-age=60")
+                .header(HttpHeaders.ETAG, "\"v1\"")
+                .header(HttpHeaders.LAST_MODIFIED, "Wed, 01 Jan 2020 00:00:00 GMT")
+                .build());
+        responses.add(ClientResponse.create(HttpStatus.NOT_MODIFIED).header(HttpHeaders.CACHE_CONTROL, "max-age=120").build());
+
+        get("http://host/resource");
+        now = now.plusSeconds(60);
+        ResponseEntity<String> revalidated = get("http://host/resource");
+        now = now.plusSeconds(119);
+        ResponseEntity<String> fresh = get("http://host/resource");
+
+        assertThat(requests).hasSize(2);
+        assertThat(requests.get(1).headers().getIfNoneMatch()).containsExactly("\"v1\"");
+        assertThat(requests.get(1).headers().getIfModifiedSince()).isEqualTo(Instant.parse("2020-01-01T00:00:00Z").toEpochMilli());
+        assertThat(revalidated.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(revalidated.getBody()).isEqualTo("first");
+        assertThat(revalidated.getHeaders().getFirst(HttpCacheFilter.CACHE_STATUS_HEADER)).isEqualTo(HttpCacheFilter.REVALIDATED);
+        assertThat(fresh.getHeaders().getFirst(HttpCacheFilter.CACHE_STATUS_HEADER)).isEqualTo(HttpCacheFilter.HIT);
+    }
+
+    @Test
+    void get_whenStaleResourceChanged_replacesTheStoredResponse() {
+        responses.add(ok("first").header(HttpHeaders.ETAG, "\"v1\"").build());
+        responses.add(ok("second").header(HttpHeaders.ETAG, "\"v2\"").build());
+        responses.add(ClientResponse.create(HttpStatus.NOT_MODIFIED).build());
+
+        get("http://host/resource");
+        ResponseEntity<String> changed = get("http://host/resource");
+        ResponseEntity<String> unchanged = get("http://host/resource");
+
+        assertThat(changed.getBody()).isEqualTo("second");
+        assertThat(HttpCacheFilter.isUnchanged(changed)).isFalse();
+        assertThat(requests.get(2).headers().getIfNoneMatch()).containsExactly("\"v2\"");
+        assertThat(unchanged.getBody()).isEqualTo("second");
+        assertThat(HttpCacheFilter.isUnchanged(unchanged)).isTrue();
+    }
+
+    @Test
+    void get_whenRequestAsksForNoCache_alwaysRevalidates() {
+        responses.add(ok("first").header(HttpHeaders.CACHE_CONTROL, "max-age=60").header(HttpHeaders.ETAG, "\"v1\"").build());
+        responses.add(ClientResponse.create(HttpStatus.NOT_MODIFIED).build());
+
+        get("http://host/resource");
+        ResponseEntity<String> second = client.get()
+                .uri("http://host/resource")
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .retrieve()
+                .toEntity(String.class)
+                .block();
+
+        assertThat(requests).hasSize(2);
+        assertThat(second.getHeaders().getFirst(HttpCacheFilter.CACHE_STATUS_HEADER)).isEqualTo(HttpCacheFilter.REVALIDATED);
+    }
+
+    @Test
+    void get_doesNotStoreUncacheableResponses() {
+        responses.add(ok("no-store").header(HttpHeaders.CACHE_CONTROL, "no-store, max-age=60").build());
+        responses.add(ok("no-validators").build());
+        responses.add(ok("too-large-" + "x".repeat(1024)).header(HttpHeaders.CACHE_CONTROL, "max-age=60").build());
+        responses.add(ok("no-store").build());
+        responses.add(ok("no-validators").build());
+        responses.add(ok("too-large").build());
+
+        get("http://host/no-store");
+        get("http://host/no-validators");
+        get("http://host/too-large");
+        get("http://host/no-store");
+        get("http://host/no-validators");
+        get("http://host/too-large");
+
+        assertThat(requests).hasSize(6);
+        assertThat(requests).allMatch(request -> request.headers().getIfNoneMatch().isEmpty());
+    }
+
+    @Test
+    void get_streamsBodiesOverTheEntryLimitThroughWithoutStoringThem() {
+        String large = "x".repeat(2048);
+        responses.add(ok(large)
+                .header(HttpHeaders.CACHE_CONTROL, "max-age=60")
+                .header(HttpHeaders.CONTENT_LENGTH, String.valueOf(large.length()))
+                .build());
+        responses.add(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CACHE_CONTROL, "max-age=60")
+                .body(Flux.just("y".repeat(600), "y".repeat(600)).map(chunk -> new DefaultDataBufferFactory().wrap(chunk.getBytes())))
+                .build());
+        responses.add(ok("declared").header(HttpHeaders.CACHE_CONTROL, "max-age=60").build());
+        responses.add(ok("chunked").header(HttpHeaders.CACHE_CONTROL, "max-age=60").build());
+
+        ResponseEntity<String> declared = get("http://host/declared");
+        ResponseEntity<String> chunked = get("http://host/chunked");
+        ResponseEntity<String> declaredAgain = get("http://host/declared");
+        ResponseEntity<String> chunkedAgain = get("http://host/chunked");
+
+        assertThat(requests).hasSize(4);
+        assertThat(declared.getBody()).isEqualTo(large);
+        assertThat(declared.getHeaders().getFirst(HttpCacheFilter.CACHE_STATUS_HEADER)).isNull();
+        assertThat(chunked.getBody()).isEqualTo("y".repeat(1200));
+        assertThat(declaredAgain.getBody()).isEqualTo("declared");
+        assertThat(chunkedAgain.getBody()).isEqualTo("chunked");
+    }
+
+    @Test
+    void get_keepsOnlyTheMostRecentlyUsedEntries() {
+        responses.add(ok("a").header(HttpHeaders.CACHE_CONTROL, "max-age=60").build());
+        responses.add(ok("b").header(HttpHeaders.CACHE_CONTROL, "max-age=60").build());
+        responses.add(ok("c").header(HttpHeaders.CACHE_CONTROL, "max-age=60").build());
+        responses.add(ok("b again").header(HttpHeaders.CACHE_CONTROL, "max-age=60").build());
+
+        get("http://host/a");
+        get("http://host/b");
+        get("http://host/a");
+        get("http://host/c");
+        ResponseEntity<String> a = get("http://host/a");
+        ResponseEntity<String> b = get("http://host/b");
+
+        assertThat(requests).hasSize(4);
+        assertThat(a.getBody()).isEqualTo("a");
+        assertThat(b.getBody()).isEqualTo("b again");
+    }
+
+    @Test
+    void get_keysEntriesByRequestHeaders() {
+        responses.add(ok("team a").header(HttpHeaders.CACHE_CONTROL, "max-age=60").build());
+        responses.add(ok("team b").header(HttpHeaders.CACHE_CONTROL, "max-age=60").build());
+
+        String a = client.get().uri("http://host/resource").header("X-API-Token", "a").retrieve().bodyToMono(String.class).block();
+        String b = client.get().uri("http://host/resource").header("X-API-Token", "b").retrieve().bodyToMono(String.class).block();
+
+        assertThat(a).isEqualTo("team a");
+        assertThat(b).isEqualTo("team b");
+    }
+
+    private ResponseEntity<String> get(String url) {
+        return client.get()
+                .uri(url)
+                .retrieve()
+                .toEntity(String.class)
+                .block();
+    }
+
+    private static ClientResponse.Builder ok(String body) {
+        return ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, "text/plain")
+                .body(body);
+    }
+}
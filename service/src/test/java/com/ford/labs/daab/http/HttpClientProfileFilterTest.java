@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.http;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HttpClientProfileFilterTest {
+    List<String> exchangedBy = new ArrayList<>();
+    Mono<ClientResponse> slowHealthResponse;
+
+    HttpClientProfileFilter subject;
+    WebClient client;
+
+    @BeforeEach
+    void setup() {
+        HttpClientProfile defaultProfile = new HttpClientProfile();
+        defaultProfile.setResponseTimeout(Duration.ZERO);
+        HttpClientProfile healthProfile = new HttpClientProfile();
+        healthProfile.setResponseTimeout(Duration.ofSeconds(2));
+
+        slowHealthResponse = Mono.just(ok());
+        ExchangeFunction health = request -> {
+            exchangedBy.add("health");
+            return slowHealthResponse;
+        };
+
+        subject = new HttpClientProfileFilter(
+                Map.of(HttpClientProperties.DEFAULT_PROFILE, defaultProfile, "health", healthProfile),
+                Map.of("health", health)
+        );
+        client = WebClient.builder()
+                .exchangeFunction(request -> {
+                    exchangedBy.add("default");
+                    return Mono.just(ok());
+                })
+                .filter(subject)
+                .build();
+    }
+
+    @Test
+    void sendsRequestsThroughTheNamedProfile() {
+        get("health");
+
+        assertThat(exchangedBy).containsExactly("health");
+    }
+
+    @Test
+    void withoutOrWithAnUnknownProfile_usesTheDefaultConnector() {
+        client.get().uri("http://host/").exchange().block();
+        get("unknown");
+
+        assertThat(exchangedBy).containsExactly("default", "default");
+    }
+
+    @Test
+    void whenTheResponseDoesNotStartWithinTheProfileTimeout_fails() {
+        slowHealthResponse = Mono.never();
+
+        StepVerifier.withVirtualTime(() -> client.get()
+                .uri("http://host/")
+                .attribute(HttpClientProfileFilter.PROFILE_ATTRIBUTE, "health")
+                .exchange())
+                .expectSubscription()
+                .thenAwait(Duration.ofSeconds(2))
+                .verifyError(TimeoutException.class);
+    }
+
+    private void get(String profile) {
+        client.get()
+                .uri("http://host/")
+                .attribute(HttpClientProfileFilter.PROFILE_ATTRIBUTE, profile)
+                .exchange()
+                .block();
+    }
+
+    private static ClientResponse ok() {
+        return ClientResponse.create(HttpStatus.OK).build();
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.http;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PublishedResponsesTest {
+    private PublishedResponses subject = new PublishedResponses();
+
+    @Test
+    void isAlreadyPublished_onlyForUnchangedResponsesOfPublishedEvents() {
+        var revalidated = ResponseEntity.ok().header(HttpCacheFilter.CACHE_STATUS_HEADER, HttpCacheFilter.REVALIDATED).build();
+        var miss = ResponseEntity.ok().header(HttpCacheFilter.CACHE_STATUS_HEADER, HttpCacheFilter.MISS).build();
+
+        assertThat(subject.isAlreadyPublished("event", revalidated)).isFalse();
+
+        subject.recordPublishing("event");
+        assertThat(subject.isAlreadyPublished("event", revalidated)).isTrue();
+        assertThat(subject.isAlreadyPublished("event", miss)).isFalse();
+        assertThat(subject.isAlreadyPublished("other", revalidated)).isFalse();
+
+        subject.forget("event");
+        assertThat(subject.isAlreadyPublished("event", revalidated)).isFalse();
+    }
+}
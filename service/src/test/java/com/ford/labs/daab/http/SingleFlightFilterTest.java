@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.http;
+
+import com.ford.labs.daab.config.EventClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SingleFlightFilterTest {
+    EventClock mockEventClock = mock(EventClock.class);
+    Instant now = Instant.parse("2020-01-01T00:00:00Z");
+
+    List<ClientRequest> requests = new ArrayList<>();
+    MonoProcessor<ClientResponse> upstream;
+    boolean upstreamDown;
+
+    WebClient client;
+
+    @BeforeEach
+    void setup() {
+        when(mockEventClock.now()).thenAnswer(invocation -> now);
+        client = client(Duration.ZERO);
+    }
+
+    @Test
+    void concurrentIdenticalGets_shareOneRequestAndEachReadTheBody() {
+        upstream = MonoProcessor.create();
+
+        Mono<List<String>> bodies = Flux.merge(get("http://host/a", "token"), get("http://host/a", "token"), get("http://host/a", "token"))
+                .collectList();
+        MonoProcessor<List<String>> result = bodies.toProcessor();
+        upstream.onNext(ClientResponse.create(HttpStatus.OK).body("forecast").build());
+
+        assertThat(result.block()).containsExactly("forecast", "forecast", "forecast");
+        assertThat(requests).hasSize(1);
+    }
+
+    @Test
+    void requestsWithDifferentUrlsOrCredentials_areNotShared() {
+        Flux.merge(get("http://host/a", "token"), get("http://host/b", "token"), get("http://host/a", "other")).blockLast();
+
+        assertThat(requests).hasSize(3);
+    }
+
+    @Test
+    void withoutResultTtl_laterRequestsGoUpstreamAgain() {
+        get("http://host/a", "token").block();
+        get("http://host/a", "token").block();
+
+        assertThat(requests).hasSize(2);
+    }
+
+    @Test
+    void withResultTtl_sharesTheResultUntilItExpires() {
+        client = client(Duration.ofSeconds(5));
+
+        get("http://host/a", "token").block();
+        now = now.plusSeconds(4);
+        assertThat(get("http://host/a", "token").block()).isEqualTo("ok");
+        assertThat(requests).hasSize(1);
+
+        now = now.plusSeconds(2);
+        get("http://host/a", "token").block();
+        assertThat(requests).hasSize(2);
+    }
+
+    @Test
+    void withResultTtl_forgetsExpiredResults() {
+        SingleFlightFilter filter = new SingleFlightFilter(mockEventClock, Duration.ofSeconds(5));
+        client = client(filter);
+
+        get("http://host/a", "token").block();
+        get("http://host/b", "token").block();
+        assertThat(filter.getFlightCount()).isEqualTo(2);
+
+        now = now.plusSeconds(6);
+        get("http://host/c", "token").block();
+        assertThat(filter.getFlightCount()).isEqualTo(1);
+    }
+
+    @Test
+    void requestsWithDifferentClientProfiles_areNotShared() {
+        Flux.merge(
+                client.get().uri("http://host/a").attribute(HttpClientProfileFilter.PROFILE_ATTRIBUTE, "jenkins").retrieve().bodyToMono(String.class),
+                client.get().uri("http://host/a").attribute(HttpClientProfileFilter.PROFILE_ATTRIBUTE, "health").retrieve().bodyToMono(String.class)
+        ).blockLast();
+
+        assertThat(requests).hasSize(2);
+    }
+
+    @Test
+    void withResultTtl_noCacheRequestsDoNotReuseACompletedResult() {
+        client = client(Duration.ofSeconds(5));
+
+        get("http://host/a", "token").block();
+        client.get().uri("http://host/a").header(HttpHeaders.CACHE_CONTROL, "no-cache").retrieve().bodyToMono(String.class).block();
+
+        assertThat(requests).hasSize(2);
+    }
+
+    @Test
+    void failedRequests_areNotShared() {
+        client = client(Duration.ofSeconds(5));
+        upstreamDown = true;
+
+        get("http://host/a", "token").onErrorResume(error -> Mono.empty()).block();
+        upstreamDown = false;
+        get("http://host/a", "token").block();
+
+        assertThat(requests).hasSize(2);
+    }
+
+    @Test
+    void nonGetRequests_passThrough() {
+        client.post().uri("http://host/a").retrieve().bodyToMono(String.class).block();
+        client.post().uri("http://host/a").retrieve().bodyToMono(String.class).block();
+
+        assertThat(requests).hasSize(2);
+    }
+
+    private WebClient client(Duration resultTtl) {
+        return client(new SingleFlightFilter(mockEventClock, resultTtl));
+    }
+
+    private WebClient client(SingleFlightFilter filter) {
+        return WebClient.builder()
+                .exchangeFunction(request -> {
+                    requests.add(request);
+                    if (upstreamDown) {
+                        return Mono.error(new ConnectException("Connection refused"));
+                    }
+                    return upstream != null
+                            ? upstream
+                            : Mono.just(ClientResponse.create(HttpStatus.OK).body("ok").build());
+                })
+                .filter(filter)
+                .build();
+    }
+
+    private Mono<String> get(String url, String token) {
+        return client.get()
+                .uri(url)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .retrieve()
+                .bodyToMono(String.class);
+    }
+}
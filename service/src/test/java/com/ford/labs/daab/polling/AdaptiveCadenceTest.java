@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.polling;
+
+import com.ford.labs.daab.event.EventLevel;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveCadenceTest {
+    private AdaptiveCadence subject = new AdaptiveCadence(
+            Duration.ofSeconds(10),
+            Duration.ofSeconds(30),
+            Duration.ofMinutes(2),
+            2,
+            Set.of(EventLevel.IN_PROGRESS)
+    );
+
+    @Test
+    void nextDelay_withoutHistory_usesTheInterval() {
+        assertThat(subject.nextDelay("job")).isEqualTo(Duration.ofSeconds(30));
+    }
+
+    @Test
+    void nextDelay_whileUrgent_usesTheFastInterval() {
+        subject.record("job", EventLevel.IN_PROGRESS, true);
+        assertThat(subject.nextDelay("job")).isEqualTo(Duration.ofSeconds(10));
+
+        subject.record("job", EventLevel.IN_PROGRESS, false);
+        subject.record("job", EventLevel.IN_PROGRESS, false);
+        subject.recordUnchanged("job");
+        assertThat(subject.nextDelay("job")).isEqualTo(Duration.ofSeconds(10));
+
+        subject.record("job", EventLevel.OK, true);
+        assertThat(subject.nextDelay("job")).isEqualTo(Duration.ofSeconds(30));
+    }
+
+    @Test
+    void nextDelay_whenUnchanged_backsOffGeometricallyUpToTheMaximum() {
+        subject.record("job", EventLevel.OK, true);
+        subject.record("job", EventLevel.OK, false);
+        assertThat(subject.nextDelay("job")).isEqualTo(Duration.ofSeconds(30));
+
+        subject.recordUnchanged("job");
+        assertThat(subject.nextDelay("job")).isEqualTo(Duration.ofSeconds(60));
+
+        subject.record("job", EventLevel.OK, false);
+        assertThat(subject.nextDelay("job")).isEqualTo(Duration.ofSeconds(120));
+
+        subject.recordUnchanged("job");
+        assertThat(subject.nextDelay("job")).isEqualTo(Duration.ofMinutes(2));
+
+        subject.record("job", EventLevel.ERROR, true);
+        assertThat(subject.nextDelay("job")).isEqualTo(Duration.ofSeconds(30));
+    }
+
+    @Test
+    void recordUnchanged_withoutHistory_isIgnored() {
+        subject.recordUnchanged("job");
+        subject.recordUnchanged("job");
+        subject.recordUnchanged("job");
+
+        assertThat(subject.nextDelay("job")).isEqualTo(Duration.ofSeconds(30));
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.polling;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PollEngineTest {
+    private VirtualTimeScheduler scheduler = VirtualTimeScheduler.create();
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PollEngine subject = new PollEngine(meterRegistry, scheduler);
+    private Disposable registration;
+
+    @AfterEach
+    void tearDown() {
+        if (registration != null) {
+            registration.dispose();
+        }
+    }
+
+    @Test
+    void pollOnce_keepsAtMostTheConcurrencyBudgetInFlight() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        PollSource<Integer> source = source(PollSchedule.every(Duration.ofSeconds(10)).withConcurrency(2), List.of(1, 2, 3, 4, 5), target -> Mono.delay(Duration.ofSeconds(1), scheduler)
+                .doOnSubscribe(subscription -> maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+                .doOnTerminate(inFlight::decrementAndGet));
+
+        subject.pollOnce(source).subscribe();
+        scheduler.advanceTimeBy(Duration.ofSeconds(5));
+
+        assertThat(maxInFlight.get()).isEqualTo(2);
+        assertThat(inFlight.get()).isEqualTo(0);
+    }
+
+    @Test
+    void pollOnce_appliesTheConcurrencyBudgetPerPartition() {
+        Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+        Map<String, Integer> maxInFlight = new ConcurrentHashMap<>();
+        PollSource<String> source = new PartitionedSource(PollSchedule.every(Duration.ofSeconds(10)).withConcurrency(1), List.of("a/1", "a/2", "b/1", "b/2"), target -> {
+            String host = target.substring(0, 1);
+            return Mono.delay(Duration.ofSeconds(1), scheduler)
+                    .doOnSubscribe(subscription -> maxInFlight.merge(host, inFlight.computeIfAbsent(host, key -> new AtomicInteger()).incrementAndGet(), Math::max))
+                    .doOnTerminate(() -> inFlight.get(host).decrementAndGet());
+        });
+
+        subject.pollOnce(source).subscribe();
+        scheduler.advanceTimeBy(Duration.ofSeconds(1));
+
+        assertThat(maxInFlight).containsOnly(Map.entry("a", 1), Map.entry("b", 1));
+        assertThat(inFlight.values()).extracting(AtomicInteger::get).containsOnly(1);
+
+        scheduler.advanceTimeBy(Duration.ofSeconds(1));
+        assertThat(inFlight.values()).extracting(AtomicInteger::get).containsOnly(0);
+    }
+
+    @Test
+    void pollOnce_recordsCycleDurationAndTargetCount() {
+        PollSource<Integer> source = source(PollSchedule.every(Duration.ofSeconds(10)).withConcurrency(3), List.of(1, 2, 3), target -> Mono.delay(Duration.ofSeconds(2), scheduler));
+
+        subject.pollOnce(source).subscribe();
+        scheduler.advanceTimeBy(Duration.ofSeconds(2));
+
+        assertThat(meterRegistry.get("poll.cycle.duration").tag("source", "test").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("poll.cycle.targets").tag("source", "test").summary().totalAmount()).isEqualTo(3);
+    }
+
+    @Test
+    void pollOnce_whenOneTargetFails_stillPollsTheOthers() {
+        List<Integer> polled = new CopyOnWriteArrayList<>();
+        PollSource<Integer> source = source(PollSchedule.every(Duration.ofSeconds(10)), List.of(1, 2, 3), target -> {
+            if (target == 2) {
+                throw new IllegalStateException("unreachable");
+            }
+            polled.add(target);
+            return Mono.just(target);
+        });
+
+        subject.pollOnce(source).block();
+
+        assertThat(polled).containsExactly(1, 3);
+    }
+
+    @Test
+    void register_withSkipPolicy_neverOverlapsAndWaitsForTheNextTick() {
+        List<Long> starts = new CopyOnWriteArrayList<>();
+        registration = subject.register(slowSource(MissedTickPolicy.SKIP, starts));
+
+        scheduler.advanceTimeBy(Duration.ofSeconds(26));
+        assertThat(starts).containsExactly(0L);
+
+        scheduler.advanceTimeBy(Duration.ofSeconds(4));
+        assertThat(starts).containsExactly(0L, 30L);
+    }
+
+    @Test
+    void register_withCatchUpPolicy_runsOnceAsSoonAsThePreviousPollFinishes() {
+        List<Long> starts = new CopyOnWriteArrayList<>();
+        registration = subject.register(slowSource(MissedTickPolicy.CATCH_UP, starts));
+
+        scheduler.advanceTimeBy(Duration.ofSeconds(26));
+        assertThat(starts).containsExactly(0L, 25L);
+
+        scheduler.advanceTimeBy(Duration.ofSeconds(25));
+        assertThat(starts).containsExactly(0L, 25L, 50L);
+    }
+
+    @Test
+    void register_pollsEachTargetAfterItsOwnNextPollDelay() {
+        Map<String, List<Long>> starts = new ConcurrentHashMap<>();
+        PollSchedule schedule = PollSchedule.every(Duration.ofSeconds(30)).withMinInterval(Duration.ofSeconds(10));
+        Map<String, Duration> delays = Map.of("fast", Duration.ofSeconds(10), "normal", Duration.ofSeconds(30), "uneven", Duration.ofSeconds(15));
+        PollSource<String> source = new PollSource<>() {
+            @Override
+            public String getName() {
+                return "adaptive";
+            }
+
+            @Override
+            public PollSchedule getSchedule() {
+                return schedule;
+            }
+
+            @Override
+            public List<String> getTargets() {
+                return List.of("fast", "normal", "uneven");
+            }
+
+            @Override
+            public Mono<?> poll(String target) {
+                starts.computeIfAbsent(target, key -> new CopyOnWriteArrayList<>()).add(scheduler.now(TimeUnit.SECONDS));
+                return Mono.empty();
+            }
+
+            @Override
+            public Duration getNextPollDelay(String target) {
+                return delays.get(target);
+            }
+        };
+
+        registration = subject.register(source);
+        scheduler.advanceTimeBy(Duration.ofSeconds(60));
+
+        assertThat(starts.get("fast")).containsExactly(0L, 10L, 20L, 30L, 40L, 50L, 60L);
+        assertThat(starts.get("normal")).containsExactly(0L, 30L, 60L);
+        assertThat(starts.get("uneven")).containsExactly(0L, 20L, 40L, 60L);
+    }
+
+    @Test
+    void register_whenATargetChangesBetweenCycles_keepsItsCadenceByKey() {
+        List<Long> starts = new CopyOnWriteArrayList<>();
+        AtomicInteger revision = new AtomicInteger();
+        PollSchedule schedule = PollSchedule.every(Duration.ofSeconds(30)).withMinInterval(Duration.ofSeconds(10));
+        PollSource<String> source = new PollSource<>() {
+            @Override
+            public String getName() {
+                return "keyed";
+            }
+
+            @Override
+            public PollSchedule getSchedule() {
+                return schedule;
+            }
+
+            @Override
+            public List<String> getTargets() {
+                return List.of("folder#" + revision.incrementAndGet());
+            }
+
+            @Override
+            public Mono<?> poll(String target) {
+                starts.add(scheduler.now(TimeUnit.SECONDS));
+                return Mono.empty();
+            }
+
+            @Override
+            public Object getTargetKey(String target) {
+                return target.substring(0, target.indexOf('#'));
+            }
+        };
+
+        registration = subject.register(source);
+        scheduler.advanceTimeBy(Duration.ofSeconds(60));
+
+        assertThat(starts).containsExactly(0L, 30L, 60L);
+    }
+
+    private PollSource<Integer> slowSource(MissedTickPolicy policy, List<Long> starts) {
+        PollSchedule schedule = PollSchedule.every(Duration.ofSeconds(10)).withMissedTickPolicy(policy);
+        return source(schedule, List.of(1), target -> Mono.delay(Duration.ofSeconds(25), scheduler)
+                .doOnSubscribe(subscription -> starts.add(scheduler.now(TimeUnit.SECONDS))));
+    }
+
+    private static class PartitionedSource implements PollSource<String> {
+        private final PollSchedule schedule;
+        private final List<String> targets;
+        private final Function<String, Mono<?>> poll;
+
+        PartitionedSource(PollSchedule schedule, List<String> targets, Function<String, Mono<?>> poll) {
+            this.schedule = schedule;
+            this.targets = targets;
+            this.poll = poll;
+        }
+
+        @Override
+        public String getName() {
+            return "partitioned";
+        }
+
+        @Override
+        public PollSchedule getSchedule() {
+            return schedule;
+        }
+
+        @Override
+        public List<String> getTargets() {
+            return targets;
+        }
+
+        @Override
+        public Mono<?> poll(String target) {
+            return poll.apply(target);
+        }
+
+        @Override
+        public String getPartition(String target) {
+            return target.substring(0, 1);
+        }
+    }
+
+    private static <T> PollSource<T> source(PollSchedule schedule, List<T> targets, Function<T, Mono<?>> poll) {
+        return new PollSource<>() {
+            @Override
+            public String getName() {
+                return "test";
+            }
+
+            @Override
+            public PollSchedule getSchedule() {
+                return schedule;
+            }
+
+            @Override
+            public List<T> getTargets() {
+                return targets;
+            }
+
+            @Override
+            public Mono<?> poll(T target) {
+                return poll.apply(target);
+            }
+        };
+    }
+}
@@ -16,132 +16,195 @@
 
 package com.ford.labs.daab.publishers;
 
+import com.ford.labs.daab.cache.EventCache;
+import com.ford.labs.daab.config.EventRedisTemplateConfig;
+import com.ford.labs.daab.event.Event;
 import com.ford.labs.daab.event.HealthEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.redis.core.ReactiveHashOperations;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class EventPublishingServiceTest {
     ReactiveRedisTemplate mockEventTemplate = mock(ReactiveRedisTemplate.class);
     ReactiveHashOperations mockEventHashOperations = mock(ReactiveHashOperations.class);
+    EventCache mockEventCache = mock(EventCache.class);
+
+    EventRedisTemplateConfig eventRedisTemplateConfig = new EventRedisTemplateConfig();
+    RedisSerializationContext<String, Event> eventSerializationContext = eventRedisTemplateConfig.eventSerializationContext(eventRedisTemplateConfig.eventSerializer());
+    RedisScript<Long> publishEventScript = eventRedisTemplateConfig.publishEventScript();
+    RedisScript<Long> deleteEventScript = eventRedisTemplateConfig.deleteEventScript();
 
     EventPublishingService subject;
 
     @BeforeEach
     void setup() {
-        subject = new EventPublishingService(mockEventTemplate);
+        subject = new EventPublishingService(mockEventTemplate, eventSerializationContext, publishEventScript, deleteEventScript, mockEventCache, 50, Duration.ZERO);
 
         when(mockEventTemplate.opsForHash(any())).thenReturn(mockEventHashOperations);
     }
 
     @Test
-    void publish_ifNotPresent_savesInCacheAndPublishes() {
+    void publish_sendsSerializedEventToPublishScript() {
         HealthEvent event = new HealthEvent();
         event.setId("id");
         event.setName("Health com.ford.labs.daab.event.Event Name");
         event.setStatus(HealthEvent.Status.UP);
         event.setTime("2018-01-01T00:00:00.000Z");
 
-        when(mockEventHashOperations.hasKey(anyString(), anyString())).thenReturn(Mono.just(false));
-        when(mockEventHashOperations.put(anyString(), anyString(), any())).thenReturn(Mono.just(true));
-        when(mockEventTemplate.convertAndSend(anyString(), any())).thenReturn(Mono.just(1L));
-
+        when(mockEventTemplate.execute(any(RedisScript.class), anyList(), anyList(), any(), any())).thenReturn(Flux.just(1L));
 
         StepVerifier.create(subject.publish(event))
                 .expectNext(1L)
                 .verifyComplete();
 
-        verify(mockEventHashOperations).hasKey("event", "id");
-
-        verify(mockEventHashOperations).put("event", "id", event);
-        verify(mockEventTemplate).convertAndSend("event.id", event);
+        verify(mockEventTemplate).execute(
+                eq(publishEventScript),
+                eq(List.of("event", "event-version", "event-history.id")),
+                argThat(arguments -> {
+                    List<byte[]> serializedArguments = (List<byte[]>) arguments;
+                    return new String(serializedArguments.get(0), UTF_8).equals("\"id\"")
+                            && new String(serializedArguments.get(1), UTF_8).startsWith("{\"eventType\":\"HEALTH\",\"id\":\"id\"")
+                            && new String(serializedArguments.get(2), UTF_8).equals("event.id")
+                            && new String(serializedArguments.get(3), UTF_8).equals("50")
+                            && new String(serializedArguments.get(4), UTF_8).equals("0");
+                }),
+                any(),
+                any()
+        );
     }
 
     @Test
-    void publish_ifPresent_ifUnchanged_doesNotSaveOrPublish() {
+    void publish_ifUnchanged_completesEmpty() {
         HealthEvent event = new HealthEvent();
         event.setId("id");
         event.setName("Health com.ford.labs.daab.event.Event Name");
         event.setStatus(HealthEvent.Status.UP);
         event.setTime("2018-01-01T00:00:00.000Z");
 
-        when(mockEventHashOperations.hasKey(anyString(), anyString())).thenReturn(Mono.just(true));
-        when(mockEventHashOperations.get(anyString(), anyString())).thenReturn(Mono.just(event));
-        when(mockEventHashOperations.put(anyString(), anyString(), any())).thenReturn(Mono.just(true));
-        when(mockEventTemplate.convertAndSend(anyString(), any())).thenReturn(Mono.just(1L));
+        when(mockEventTemplate.execute(any(RedisScript.class), anyList(), anyList(), any(), any())).thenReturn(Flux.just(-1L));
 
         StepVerifier.create(subject.publish(event))
                 .verifyComplete();
 
-        verify(mockEventHashOperations).hasKey("event", "id");
-        verify(mockEventHashOperations).get("event", "id");
+        verify(mockEventTemplate, times(0)).convertAndSend(anyString(), any());
+        verify(mockEventHashOperations, times(0)).put(anyString(), anyString(), any());
+    }
+
+    @Test
+    void publish_usesOneRoundTrip() {
+        HealthEvent event = new HealthEvent();
+        event.setId("id");
+        event.setName("Health com.ford.labs.daab.event.Event Name");
+        event.setStatus(HealthEvent.Status.DOWN);
+        event.setTime("2018-01-02T00:00:00.000Z");
+
+        when(mockEventTemplate.execute(any(RedisScript.class), anyList(), anyList(), any(), any())).thenReturn(Flux.just(2L));
+
+        StepVerifier.create(subject.publish(event))
+                .expectNext(2L)
+                .verifyComplete();
+
+        verify(mockEventTemplate, times(1)).execute(any(RedisScript.class), anyList(), anyList(), any(), any());
+        verifyNoInteractions(mockEventHashOperations);
+    }
+
+    @Test
+    void publish_ifPublishedBefore_stillLetsScriptDecideSoALostKeyIsRewritten() {
+        HealthEvent event = new HealthEvent();
+        event.setId("id");
+        event.setStatus(HealthEvent.Status.UP);
+
+        when(mockEventTemplate.execute(any(RedisScript.class), anyList(), anyList(), any(), any()))
+                .thenReturn(Flux.just(1L), Flux.just(2L));
 
-        verify(mockEventHashOperations, times(0)).put("event", "id", event);
-        verify(mockEventTemplate, times(0)).convertAndSend("event.id", event);
+        StepVerifier.create(subject.publish(event))
+                .expectNext(1L)
+                .verifyComplete();
+        StepVerifier.create(subject.publish(event))
+                .expectNext(2L)
+                .verifyComplete();
+
+        verify(mockEventTemplate, times(2)).execute(any(RedisScript.class), anyList(), anyList(), any(), any());
     }
 
     @Test
-    void publish_ifPresent_ifChanged_savesInCacheAndPublishes() {
-        HealthEvent cachedEvent = new HealthEvent();
-        cachedEvent.setId("id");
-        cachedEvent.setName("Health com.ford.labs.daab.event.Event Name");
-        cachedEvent.setStatus(HealthEvent.Status.UP);
-        cachedEvent.setTime("2018-01-01T00:00:00.000Z");
-
-        HealthEvent newEvent = new HealthEvent();
-        newEvent.setId("id");
-        newEvent.setName("Health com.ford.labs.daab.event.Event Name");
-        newEvent.setStatus(HealthEvent.Status.DOWN);
-        newEvent.setTime("2018-01-02T00:00:00.000Z");
-
-        when(mockEventHashOperations.hasKey(anyString(), anyString())).thenReturn(Mono.just(true));
-        when(mockEventHashOperations.get(anyString(), anyString())).thenReturn(Mono.just(cachedEvent));
-        when(mockEventHashOperations.put(anyString(), anyString(), any())).thenReturn(Mono.just(true));
-        when(mockEventTemplate.convertAndSend(anyString(), any())).thenReturn(Mono.just(1L));
-
-        StepVerifier.create(subject.publish(newEvent))
+    void publish_storesPublishedEventInLocalCache() {
+        HealthEvent event = new HealthEvent();
+        event.setId("id");
+        event.setStatus(HealthEvent.Status.UP);
+
+        when(mockEventTemplate.execute(any(RedisScript.class), anyList(), anyList(), any(), any())).thenReturn(Flux.just(1L));
+
+        StepVerifier.create(subject.publish(event))
                 .expectNext(1L)
                 .verifyComplete();
 
-        verify(mockEventHashOperations).hasKey("event", "id");
-        verify(mockEventHashOperations).get("event", "id");
+        verify(mockEventCache).put(eq(event), argThat(json -> new String(json, UTF_8).startsWith("{\"version\":1,\"eventType\":\"HEALTH\"")));
+    }
 
-        verify(mockEventHashOperations).put("event", "id", newEvent);
-        verify(mockEventTemplate).convertAndSend("event.id", newEvent);
+    @Test
+    void publishEventScript_isLoadedFromClasspath() {
+        assertThat(publishEventScript.getScriptAsString())
+                .contains("HGET", "INCR", "HSET", "PUBLISH", "XADD", "TIME");
+        assertThat(publishEventScript.getResultType()).isEqualTo(Long.class);
     }
 
     @Test
-    void delete_ifNotPresent_doesNothing() {
-        when(mockEventHashOperations.hasKey(anyString(), anyString())).thenReturn(Mono.just(false));
-        when(mockEventHashOperations.put(anyString(), anyString(), any())).thenReturn(Mono.just(true));
-        when(mockEventTemplate.convertAndSend(anyString(), any())).thenReturn(Mono.just(1L));
+    void deleteEventScript_isLoadedFromClasspath() {
+        assertThat(deleteEventScript.getScriptAsString())
+                .contains("HDEL", "INCR", "PUBLISH", "TIME");
+        assertThat(deleteEventScript.getResultType()).isEqualTo(Long.class);
+    }
 
+    @Test
+    void delete_ifNotPresent_doesNothing() {
+        when(mockEventTemplate.execute(any(RedisScript.class), anyList(), anyList(), any(), any())).thenReturn(Flux.just(0L));
 
         StepVerifier.create(subject.delete("somevent.toDelete"))
                 .verifyComplete();
 
-        verify(mockEventHashOperations, times(0)).remove("event", "somevent.toDelete");
+        verify(mockEventCache, never()).evict(any());
     }
 
     @Test
-    void delete_ifPresent_deletesEvent() {
-        when(mockEventHashOperations.hasKey(anyString(), anyString())).thenReturn(Mono.just(true));
-        when(mockEventHashOperations.put(anyString(), anyString(), any())).thenReturn(Mono.just(true));
-        when(mockEventHashOperations.remove(anyString(), anyString())).thenReturn(Mono.just(1L));
-        when(mockEventTemplate.convertAndSend(anyString(), any())).thenReturn(Mono.just(1L));
-
+    void delete_ifPresent_deletesEventAsTheNextVersion() {
+        when(mockEventTemplate.execute(any(RedisScript.class), anyList(), anyList(), any(), any())).thenReturn(Flux.just(9L));
 
         StepVerifier.create(subject.delete("somevent.toDelete"))
-                .expectNext(1L)
+                .expectNext(9L)
                 .verifyComplete();
 
-        verify(mockEventHashOperations).remove("event", "somevent.toDelete");
+        verify(mockEventTemplate).execute(
+                eq(deleteEventScript),
+                eq(List.of("event", "event-version")),
+                argThat(arguments -> {
+                    List<byte[]> serializedArguments = (List<byte[]>) arguments;
+                    return new String(serializedArguments.get(0), UTF_8).equals("\"somevent.toDelete\"")
+                            && new String(serializedArguments.get(1), UTF_8).equals("{\"id\":\"somevent.toDelete\",\"deleted\":true}")
+                            && new String(serializedArguments.get(2), UTF_8).equals("event-deleted.somevent.toDelete");
+                }),
+                any(),
+                any()
+        );
+        verify(mockEventCache).evict(argThat(tombstone -> tombstone.getId().equals("somevent.toDelete")
+                && tombstone.isDeleted()
+                && tombstone.getVersion() == 9L));
     }
 }
\ No newline at end of file
@@ -19,26 +19,35 @@ package com.ford.labs.daab.publishers.health.generic;
 import com.ford.labs.daab.WireMockExtension;
 import com.ford.labs.daab.config.event.properties.EventProperties;
 import com.ford.labs.daab.config.event.properties.health.HealthApplication;
+import com.ford.labs.daab.config.event.properties.health.HealthProbeType;
 import com.ford.labs.daab.config.event.properties.health.HealthProperties;
 import com.ford.labs.daab.event.EventLevel;
+import com.ford.labs.daab.event.FigureEvent;
 import com.ford.labs.daab.event.HealthEvent;
 import com.ford.labs.daab.event.StatusEvent;
+import com.ford.labs.daab.http.CircuitOpenException;
+import com.ford.labs.daab.polling.PollEngine;
 import com.ford.labs.daab.publishers.EventPublishingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 
+import static com.github.tomakehurst.wiremock.client.WireMock.anyRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
 import static com.github.tomakehurst.wiremock.client.WireMock.ok;
 import static com.github.tomakehurst.wiremock.client.WireMock.serverError;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.anyString;
@@ -56,14 +65,18 @@ class GenericHealthPublisherTest {
     EventProperties eventProperties = new EventProperties();
     HealthProperties healthProperties = new HealthProperties();
 
-    GenericHealthPublisher subject = new GenericHealthPublisher(
-            mockEventPublishingService,
-            WebClient.create(),
-            eventProperties
-    );
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    GenericHealthPublisher subject;
 
     @BeforeEach
-    void setup() {
+    void setup() throws Exception {
+        wireMock.getServer().resetRequests();
+        subject = new GenericHealthPublisher(
+                mockEventPublishingService,
+                new HealthProbeClient(WebClient.create(), meterRegistry),
+                eventProperties
+        );
         healthProperties = new HealthProperties();
         eventProperties.setHealth(healthProperties);
 
@@ -94,7 +107,7 @@ class GenericHealthPublisherTest {
         wireMock.getServer().stubFor(get(urlEqualTo("/down")).willReturn(serverError()));
         wireMock.getServer().stubFor(get(urlEqualTo("/downButCached")).willReturn(serverError()));
 
-        subject.pollHealth();
+        new PollEngine(new SimpleMeterRegistry()).pollOnce(subject).block();
 
         verify(mockEventPublishingService)
                 .publish(argThat(event ->
@@ -115,4 +128,106 @@ class GenericHealthPublisherTest {
         verify(mockEventPublishingService, times(0))
                 .publish(argThat(event -> event.getId().equals("health.downbutcached")));
     }
+
+    @Test
+    void getNextPollDelay_whileApplicationIsDown_checksItFaster() {
+        HealthApplication up = new HealthApplication("up", "IsUp", "http://localhost:8123/up", null, null);
+        HealthApplication down = new HealthApplication("down", "IsDown", "http://localhost:8123/down", null, null);
+        healthProperties.setApplications(asList(up, down));
+
+        wireMock.getServer().stubFor(get(urlEqualTo("/up")).willReturn(ok()));
+        wireMock.getServer().stubFor(get(urlEqualTo("/down")).willReturn(serverError()));
+
+        new PollEngine(new SimpleMeterRegistry()).pollOnce(subject).block();
+
+        assertThat(subject.getNextPollDelay(up)).isEqualTo(Duration.ofSeconds(30));
+        assertThat(subject.getNextPollDelay(down)).isEqualTo(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void pollHealth_whenCircuitIsOpen_publishesUnknown() throws Exception {
+        GenericHealthPublisher breakerSubject = new GenericHealthPublisher(
+                mockEventPublishingService,
+                new HealthProbeClient(
+                        WebClient.builder()
+                                .exchangeFunction(request -> Mono.error(new CircuitOpenException(request.url().getAuthority())))
+                                .build(),
+                        meterRegistry
+                ),
+                eventProperties
+        );
+        healthProperties.setApplications(asList(new HealthApplication("dead", "IsDead", "http://localhost:8123/dead", null, null)));
+
+        new PollEngine(new SimpleMeterRegistry()).pollOnce(breakerSubject).block();
+
+        verify(mockEventPublishingService)
+                .publish(argThat(event ->
+                        event.getId().equals("health.dead")
+                                && event.getLevel().equals(EventLevel.UNKNOWN)
+                                && ((StatusEvent) event).getStatusText().equals("Unknown")
+                ));
+    }
+
+    @Test
+    void pollHealth_whenEndpointRefusesOrStalls_publishesDown() {
+        HealthApplication refused = new HealthApplication("refused", "Refused", "http://localhost:1/health", null, null);
+        HealthApplication stalled = new HealthApplication("stalled", "Stalled", "http://localhost:8123/stalled", null, null);
+        stalled.setTimeout(Duration.ofMillis(200));
+        healthProperties.setApplications(asList(refused, stalled));
+
+        wireMock.getServer().stubFor(get(urlEqualTo("/stalled")).willReturn(ok().withFixedDelay(2000)));
+
+        new PollEngine(new SimpleMeterRegistry()).pollOnce(subject).block();
+
+        verify(mockEventPublishingService)
+                .publish(argThat(event ->
+                        event.getId().equals("health.refused")
+                                && event.getLevel().equals(EventLevel.ERROR)
+                                && ((StatusEvent) event).getStatusText().equals("Down")
+                ));
+        verify(mockEventPublishingService)
+                .publish(argThat(event ->
+                        event.getId().equals("health.stalled")
+                                && event.getLevel().equals(EventLevel.ERROR)
+                                && ((StatusEvent) event).getStatusText().equals("Down")
+                ));
+        assertThat(subject.getNextPollDelay(stalled)).isEqualTo(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void pollHealth_withLatencyFigure_publishesResponseTimePercentiles() {
+        HealthApplication application = new HealthApplication("up", "IsUp", "http://localhost:8123/up", null, null);
+        application.setLatencyFigure(true);
+        healthProperties.setApplications(asList(application));
+
+        wireMock.getServer().stubFor(get(urlEqualTo("/up")).willReturn(ok().withFixedDelay(50)));
+
+        new PollEngine(new SimpleMeterRegistry()).pollOnce(subject).block();
+
+        verify(mockEventPublishingService)
+                .publish(argThat(event ->
+                        event.getId().equals("health.up.latency")
+                                && event.getName().equals("IsUp Latency")
+                                && ((FigureEvent) event).getValue().endsWith(" ms")
+                                && ((FigureEvent) event).getSubtext().startsWith("p95 ")
+                ));
+        assertThat(meterRegistry.get("health.probe.latency").tag("application", "up").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void pollHealth_withTcpProbe_reportsWhetherThePortIsListening() {
+        HealthApplication listening = new HealthApplication("listening", "Listening", "localhost:8123", null, null);
+        listening.setProbe(HealthProbeType.TCP);
+        HealthApplication closed = new HealthApplication("closed", "Closed", "tcp://localhost:1", null, null);
+        closed.setProbe(HealthProbeType.TCP);
+        healthProperties.setApplications(asList(listening, closed));
+
+        new PollEngine(new SimpleMeterRegistry()).pollOnce(subject).block();
+
+        verify(mockEventPublishingService)
+                .publish(argThat(event -> event.getId().equals("health.listening") && event.getLevel().equals(EventLevel.OK)));
+        verify(mockEventPublishingService)
+                .publish(argThat(event -> event.getId().equals("health.closed") && event.getLevel().equals(EventLevel.ERROR)));
+        wireMock.getServer().verify(0, anyRequestedFor(anyUrl()));
+    }
 }
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.publishers.health.generic;
+
+import com.ford.labs.daab.WireMockExtension;
+import com.ford.labs.daab.config.WebClientConfiguration;
+import com.ford.labs.daab.config.event.properties.health.HealthApplication;
+import com.ford.labs.daab.config.event.properties.health.HealthProbeType;
+import com.ford.labs.daab.http.HttpClientProfile;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.anyRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.head;
+import static com.github.tomakehurst.wiremock.client.WireMock.headRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.ok;
+import static com.github.tomakehurst.wiremock.client.WireMock.serverError;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HealthProbeClientTest {
+    @RegisterExtension
+    static WireMockExtension wireMock = new WireMockExtension();
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    HealthProbeClient subject;
+
+    @BeforeEach
+    void setup() throws Exception {
+        wireMock.getServer().resetRequests();
+
+        HttpClientProfile singleConnection = new HttpClientProfile();
+        singleConnection.setMaxConnections(1);
+        singleConnection.setPendingAcquireTimeout(Duration.ofSeconds(1));
+
+        WebClient client = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(new WebClientConfiguration("", "").client("probe", singleConnection)))
+                .build();
+        subject = new HealthProbeClient(client, meterRegistry);
+    }
+
+    @Test
+    void probe_releasesEachBodySoOneConnectionServesEveryCheck() {
+        wireMock.getServer().stubFor(get(urlEqualTo("/status")).willReturn(serverError().withBody("{\"status\": \"DOWN\", \"details\": \"a long body\"}")));
+        HealthApplication application = new HealthApplication("app", "App", WireMockExtension.WIREMOCK_URL + "/status", null, null);
+
+        StepVerifier.create(Flux.range(0, 5).concatMap(attempt -> subject.probe(application, "default")))
+                .expectNextCount(5)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void probe_withHeadMethod_sendsHeadWithBasicAuth() {
+        wireMock.getServer().stubFor(head(urlEqualTo("/status")).willReturn(ok()));
+        HealthApplication application = new HealthApplication("app", "App", WireMockExtension.WIREMOCK_URL + "/status", "user", "pass");
+        application.setMethod("head");
+
+        StepVerifier.create(subject.probe(application, "default"))
+                .expectNext(HttpStatus.OK)
+                .verifyComplete();
+
+        wireMock.getServer().verify(headRequestedFor(urlEqualTo("/status")).withHeader("Authorization", equalTo("Basic dXNlcjpwYXNz")));
+        wireMock.getServer().verify(0, getRequestedFor(urlEqualTo("/status")));
+    }
+
+    @Test
+    void probe_recordsLatencyPerApplication() {
+        wireMock.getServer().stubFor(get(urlEqualTo("/status")).willReturn(ok().withFixedDelay(100)));
+        HealthApplication application = new HealthApplication("app", "App", WireMockExtension.WIREMOCK_URL + "/status", null, null);
+
+        subject.probe(application, "default").block();
+        subject.probe(application, "default").block();
+
+        assertThat(subject.getProbeCount("app")).isEqualTo(2);
+        assertThat(subject.getLatencyPercentiles("app")).containsOnlyKeys(0.5, 0.95);
+        assertThat(subject.getLatencyPercentiles("app").get(0.5)).isGreaterThanOrEqualTo(90.0);
+    }
+
+    @Test
+    void probe_whenCheckTakesLongerThanItsTimeout_fails() {
+        wireMock.getServer().stubFor(get(urlEqualTo("/slow")).willReturn(ok().withFixedDelay(2000)));
+        HealthApplication application = new HealthApplication("slow", "Slow", WireMockExtension.WIREMOCK_URL + "/slow", null, null);
+        application.setTimeout(Duration.ofMillis(200));
+
+        StepVerifier.create(subject.probe(application, "default"))
+                .expectError(TimeoutException.class)
+                .verify(Duration.ofSeconds(1));
+        assertThat(subject.getProbeCount("slow")).isEqualTo(0);
+    }
+
+    @Test
+    void check_withTcpProbe_onlyConnects() {
+        HealthApplication listening = new HealthApplication("listening", "Listening", "localhost:8123", null, null);
+        listening.setProbe(HealthProbeType.TCP);
+        HealthApplication closed = new HealthApplication("closed", "Closed", "localhost:1", null, null);
+        closed.setProbe(HealthProbeType.TCP);
+
+        StepVerifier.create(subject.check(listening, "default")).expectNext(true).verifyComplete();
+        StepVerifier.create(subject.check(closed, "default")).expectNext(false).verifyComplete();
+
+        wireMock.getServer().verify(0, anyRequestedFor(anyUrl()));
+        assertThat(subject.getProbeCount("listening")).isEqualTo(1);
+    }
+
+    @Test
+    void check_withTlsProbe_completesTheHandshakeWithoutSendingARequest() {
+        WireMockServer httpsServer = new WireMockServer(options().dynamicPort().dynamicHttpsPort());
+        httpsServer.start();
+        try {
+            HealthApplication secure = new HealthApplication("secure", "Secure", "https://localhost:" + httpsServer.httpsPort(), null, null);
+            secure.setProbe(HealthProbeType.TLS);
+            HealthApplication plain = new HealthApplication("plain", "Plain", "localhost:" + httpsServer.port(), null, null);
+            plain.setProbe(HealthProbeType.TLS);
+            plain.setTimeout(Duration.ofSeconds(1));
+
+            StepVerifier.create(subject.check(secure, "default")).expectNext(true).verifyComplete();
+            StepVerifier.create(subject.check(plain, "default")).expectNext(false).verifyComplete();
+
+            httpsServer.verify(0, anyRequestedFor(anyUrl()));
+        } finally {
+            httpsServer.stop();
+        }
+    }
+
+    @Test
+    void getPartition_groupsSocketProbesByHost() {
+        HealthApplication http = new HealthApplication("http", "Http", "http://a.example.com/health", null, null);
+        HealthApplication tcp = new HealthApplication("tcp", "Tcp", "b.example.com:5432", null, null);
+        tcp.setProbe(HealthProbeType.TCP);
+
+        assertThat(HealthProbeClient.getPartition(http)).isEmpty();
+        assertThat(HealthProbeClient.getPartition(tcp)).isEqualTo("TCP:b.example.com");
+    }
+}
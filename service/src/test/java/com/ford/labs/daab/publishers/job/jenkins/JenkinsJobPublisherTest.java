@@ -17,31 +17,41 @@
 package com.ford.labs.daab.publishers.job.jenkins;
 
 import com.ford.labs.daab.WireMockExtension;
+import com.ford.labs.daab.config.EventClock;
 import com.ford.labs.daab.config.event.properties.EventProperties;
+import com.ford.labs.daab.config.event.properties.job.JenkinsFolder;
 import com.ford.labs.daab.config.event.properties.job.JenkinsJob;
 import com.ford.labs.daab.config.event.properties.job.JenkinsJobProperties;
 import com.ford.labs.daab.config.event.properties.job.JobProperties;
 import com.ford.labs.daab.event.EventLevel;
 import com.ford.labs.daab.event.JobEvent;
 import com.ford.labs.daab.event.StatusEvent;
+import com.ford.labs.daab.http.HttpCacheFilter;
+import com.ford.labs.daab.polling.PollEngine;
 import com.ford.labs.daab.publishers.EventPublishingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.stream.Collectors;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static java.util.Arrays.asList;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
 class JenkinsJobPublisherTest {
 
     @RegisterExtension
@@ -51,10 +61,15 @@ class JenkinsJobPublisherTest {
     EventProperties eventProperties = new EventProperties();
     JenkinsJobProperties jenkinsJobProperties = new JenkinsJobProperties();
 
+    JenkinsJobDiscovery jenkinsJobDiscovery = new JenkinsJobDiscovery(WebClient.create(), eventProperties);
+    EventClock mockEventClock = mock(EventClock.class);
+
     JenkinsJobPublisher subject = new JenkinsJobPublisher(
             mockEventPublishingService,
             WebClient.create(),
-            eventProperties
+            eventProperties,
+            jenkinsJobDiscovery,
+            mockEventClock
     );
 
     @BeforeEach
@@ -62,8 +77,10 @@ class JenkinsJobPublisherTest {
         JobProperties jobProperties = new JobProperties();
         jobProperties.setJenkins(jenkinsJobProperties);
         eventProperties.setJob(jobProperties);
+        wireMock.getServer().resetRequests();
 
         when(mockEventPublishingService.publish(any())).thenReturn(Mono.just(1L));
+        when(mockEventClock.now()).thenReturn(Instant.parse("2020-01-01T00:00:00Z"));
     }
 
     @Test
@@ -110,7 +127,7 @@ class JenkinsJobPublisherTest {
                 .willReturn(notFound())
         );
 
-        subject.pollJobs();
+        new PollEngine(new SimpleMeterRegistry()).pollOnce(subject).block();
 
         verify(mockEventPublishingService)
                 .publish(argThat(event ->
@@ -161,4 +178,368 @@ class JenkinsJobPublisherTest {
                                 && event.getTime() == null
                 ));
     }
+
+    @Test
+    void pollJobs_onTheSameHost_staysWithinTheConfiguredInFlightBudget() {
+        jenkinsJobProperties.setMaxInFlightPerHost(2);
+        jenkinsJobProperties.setJobs(List.of(
+                new JenkinsJob("one", "One", "http://localhost:8123/budget/job/one"),
+                new JenkinsJob("two", "Two", "http://localhost:8123/budget/job/two"),
+                new JenkinsJob("three", "Three", "http://localhost:8123/budget/job/three"),
+                new JenkinsJob("four", "Four", "http://localhost:8123/budget/job/four")
+        ));
+
+        wireMock.getServer().stubFor(get(urlPathMatching("/budget/job/.*"))
+                .willReturn(okJson("{\"color\": \"blue\", \"builds\": []}").withFixedDelay(500))
+        );
+
+        new PollEngine(new SimpleMeterRegistry()).pollOnce(subject).block();
+
+        List<Long> arrivals = wireMock.getServer().getAllServeEvents().stream()
+                .map(serveEvent -> serveEvent.getRequest().getLoggedDate().getTime())
+                .sorted()
+                .collect(Collectors.toList());
+        assertThat(arrivals).hasSize(4);
+        assertThat(arrivals.get(1) - arrivals.get(0)).isLessThan(400);
+        assertThat(arrivals.get(2) - arrivals.get(0)).isGreaterThanOrEqualTo(450);
+        assertThat(arrivals.get(3) - arrivals.get(2)).isLessThan(400);
+    }
+
+    @Test
+    void getPartition_isTheJenkinsHost() {
+        assertThat(subject.getPartition(JenkinsJobBatch.of(new JenkinsJob("a", "A", "http://jenkins-a:8080/job/a")))).isEqualTo("jenkins-a:8080");
+        assertThat(subject.getPartition(JenkinsJobBatch.of(new JenkinsJob("b", "B", "https://jenkins-b/job/b")))).isEqualTo("jenkins-b");
+        assertThat(subject.getPartition(JenkinsJobBatch.of(new JenkinsJob("c", "C", "jenkinsurl/job/c")))).isEqualTo("");
+    }
+
+    @Test
+    void getTargetKey_staysTheSameWhenAFoldersJobsChange() {
+        JenkinsJob first = new JenkinsJob("first", "First", "http://localhost:8123/job/team/job/first");
+        JenkinsJob second = new JenkinsJob("second", "Second", "http://localhost:8123/job/team/job/second");
+
+        assertThat(subject.getTargetKey(new JenkinsJobBatch("http://localhost:8123/job/team", List.of(first))))
+                .isEqualTo(subject.getTargetKey(new JenkinsJobBatch("http://localhost:8123/job/team", List.of(first, second))));
+        assertThat(subject.getTargetKey(JenkinsJobBatch.of(first)))
+                .isNotEqualTo(subject.getTargetKey(JenkinsJobBatch.of(second)));
+    }
+
+    @Test
+    void pollJobs_whenLastBuildIsUnchanged_doesNotRequestBuildDetailsAgain() {
+        jenkinsJobProperties.setJobs(List.of(new JenkinsJob("success", "Success", "http://localhost:8123/job/success")));
+
+        wireMock.getServer().stubFor(get(urlEqualTo("/job/success"))
+                .willReturn(okJson("{\"color\": \"blue\", \"builds\": [{\"url\": \"http://localhost:8123/job/success/1/\"}]}"))
+        );
+        wireMock.getServer().stubFor(get(urlEqualTo("/job/success/1/api/json"))
+                .willReturn(okJson("{\"timestamp\": 11231}"))
+        );
+
+        PollEngine pollEngine = new PollEngine(new SimpleMeterRegistry());
+        pollEngine.pollOnce(subject).block();
+        pollEngine.pollOnce(subject).block();
+
+        wireMock.getServer().verify(2, getRequestedFor(urlEqualTo("/job/success")));
+        wireMock.getServer().verify(1, getRequestedFor(urlEqualTo("/job/success/1/api/json")));
+        verify(mockEventPublishingService, times(2))
+                .publish(argThat(event -> event.getTime().equals(Instant.ofEpochMilli(11231L).atOffset(ZoneOffset.UTC).format(DateTimeFormatter.ISO_DATE_TIME))));
+    }
+
+    @Test
+    void pollJobs_whenBatched_requestsEachFolderOnce() {
+        jenkinsJobProperties.setBatched(true);
+        jenkinsJobProperties.setJobs(List.of(
+                new JenkinsJob("success", "Success", "http://localhost:8123/job/team/job/success/api/json"),
+                new JenkinsJob("inprogress", "In Progress", "http://localhost:8123/job/team/job/in%20progress/"),
+                new JenkinsJob("missing", "Missing", "http://localhost:8123/job/team/job/missing"),
+                new JenkinsJob("root", "Root", "http://localhost:8123/job/root")
+        ));
+
+        wireMock.getServer().stubFor(get(urlPathEqualTo("/job/team/api/json"))
+                .withQueryParam("tree", equalTo("jobs[name,color,lastBuild[number,url,timestamp]]"))
+                .willReturn(okJson("{\"jobs\": [" +
+                        "{\"name\": \"success\", \"color\": \"blue\", \"lastBuild\": {\"number\": 3, \"url\": \"http://localhost:8123/job/team/job/success/3/\", \"timestamp\": 11231}}," +
+                        "{\"name\": \"in progress\", \"color\": \"blue_anime\", \"lastBuild\": {\"number\": 7, \"url\": \"http://localhost:8123/job/team/job/in%20progress/7/\", \"timestamp\": 11235}}," +
+                        "{\"name\": \"unconfigured\", \"color\": \"red\", \"lastBuild\": null}" +
+                        "]}"))
+        );
+        wireMock.getServer().stubFor(get(urlPathEqualTo("/api/json"))
+                .willReturn(okJson("{\"jobs\": [{\"name\": \"root\", \"color\": \"red\", \"lastBuild\": null}]}"))
+        );
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        new PollEngine(meterRegistry).pollOnce(subject).block();
+
+        wireMock.getServer().verify(1, getRequestedFor(urlPathEqualTo("/job/team/api/json")));
+        wireMock.getServer().verify(1, getRequestedFor(urlPathEqualTo("/api/json")));
+        assertThat(meterRegistry.get("poll.cycle.targets").tag("source", "jenkins").summary().totalAmount()).isEqualTo(4);
+
+        verify(mockEventPublishingService)
+                .publish(argThat(event ->
+                        event.getId().equals("job.jenkins.success")
+                                && event.getLevel().equals(EventLevel.OK)
+                                && event.getUrl().equals("http://localhost:8123/job/team/job/success/3/")
+                                && event.getTime().equals(Instant.ofEpochMilli(11231L).atOffset(ZoneOffset.UTC).format(DateTimeFormatter.ISO_DATE_TIME))
+                ));
+        verify(mockEventPublishingService)
+                .publish(argThat(event ->
+                        event.getId().equals("job.jenkins.inprogress")
+                                && event.getLevel().equals(EventLevel.IN_PROGRESS)
+                                && ((StatusEvent) event).getStatusText().equals("In Progress")
+                ));
+        verify(mockEventPublishingService)
+                .publish(argThat(event ->
+                        event.getId().equals("job.jenkins.missing")
+                                && event.getLevel().equals(EventLevel.UNKNOWN)
+                ));
+        verify(mockEventPublishingService)
+                .publish(argThat(event ->
+                        event.getId().equals("job.jenkins.root")
+                                && event.getLevel().equals(EventLevel.ERROR)
+                                && event.getUrl() == null
+                ));
+        verify(mockEventPublishingService, times(4)).publish(any());
+    }
+
+    @Test
+    void pollJobs_pollsDiscoveredJobsWithOneRequestPerFolder() {
+        jenkinsJobProperties.setFolders(List.of(new JenkinsFolder("team", "Team", "http://localhost:8123/job/team/", 2)));
+
+        wireMock.getServer().stubFor(get(urlPathEqualTo("/job/team/api/json"))
+                .withQueryParam("tree", equalTo("jobs[name,url,color,jobs[name,url,color]]"))
+                .willReturn(okJson("{\"jobs\": [" +
+                        "{\"name\": \"app\", \"url\": \"http://localhost:8123/job/team/job/app/\", \"jobs\": [" +
+                        "{\"name\": \"main\", \"url\": \"http://localhost:8123/job/team/job/app/job/main/\", \"color\": \"blue\"}," +
+                        "{\"name\": \"feature%2Fa\", \"url\": \"http://localhost:8123/job/team/job/app/job/feature%252Fa/\", \"color\": \"red\"}" +
+                        "]}," +
+                        "{\"name\": \"deploy\", \"url\": \"http://localhost:8123/job/team/job/deploy/\", \"color\": \"blue\"}" +
+                        "]}"))
+        );
+        wireMock.getServer().stubFor(get(urlPathEqualTo("/job/team/job/app/api/json"))
+                .withQueryParam("tree", equalTo("jobs[name,color,lastBuild[number,url,timestamp]]"))
+                .willReturn(okJson("{\"jobs\": [" +
+                        "{\"name\": \"main\", \"color\": \"blue\", \"lastBuild\": {\"number\": 1, \"url\": \"http://localhost:8123/job/team/job/app/job/main/1/\", \"timestamp\": 11231}}," +
+                        "{\"name\": \"feature%2Fa\", \"color\": \"red\", \"lastBuild\": null}" +
+                        "]}"))
+        );
+        wireMock.getServer().stubFor(get(urlPathEqualTo("/job/team/api/json"))
+                .withQueryParam("tree", equalTo("jobs[name,color,lastBuild[number,url,timestamp]]"))
+                .willReturn(okJson("{\"jobs\": [{\"name\": \"deploy\", \"color\": \"blue\", \"lastBuild\": null}]}"))
+        );
+
+        PollEngine pollEngine = new PollEngine(new SimpleMeterRegistry());
+        pollEngine.pollOnce(jenkinsJobDiscovery).block();
+        pollEngine.pollOnce(subject).block();
+
+        wireMock.getServer().verify(2, getRequestedFor(urlPathEqualTo("/job/team/api/json")));
+        wireMock.getServer().verify(1, getRequestedFor(urlPathEqualTo("/job/team/job/app/api/json")));
+        verify(mockEventPublishingService)
+                .publish(argThat(event ->
+                        event.getId().equals("job.jenkins.team.app.main")
+                                && event.getName().equals("Team / app / main")
+                                && event.getLevel().equals(EventLevel.OK)
+                                && event.getUrl().equals("http://localhost:8123/job/team/job/app/job/main/1/")
+                ));
+        verify(mockEventPublishingService)
+                .publish(argThat(event ->
+                        event.getId().equals("job.jenkins.team.app.feature%2Fa")
+                                && event.getLevel().equals(EventLevel.ERROR)
+                ));
+        verify(mockEventPublishingService)
+                .publish(argThat(event ->
+                        event.getId().equals("job.jenkins.team.deploy")
+                                && event.getLevel().equals(EventLevel.OK)
+                ));
+        verify(mockEventPublishingService, times(3)).publish(any());
+    }
+
+    @Test
+    void discovery_whenRefreshFails_keepsPreviouslyDiscoveredJobs() {
+        jenkinsJobProperties.setFolders(List.of(new JenkinsFolder("team", "Team", "http://localhost:8123/job/team", 1)));
+
+        wireMock.getServer().stubFor(get(urlPathEqualTo("/job/team/api/json"))
+                .willReturn(okJson("{\"jobs\": [{\"name\": \"deploy\", \"url\": \"http://localhost:8123/job/team/job/deploy/\", \"color\": \"blue\"}]}"))
+        );
+        PollEngine pollEngine = new PollEngine(new SimpleMeterRegistry());
+        pollEngine.pollOnce(jenkinsJobDiscovery).block();
+
+        wireMock.getServer().stubFor(get(urlPathEqualTo("/job/team/api/json"))
+                .willReturn(serverError())
+        );
+        pollEngine.pollOnce(jenkinsJobDiscovery).block();
+
+        assertThat(jenkinsJobDiscovery.getDiscoveredJobs())
+                .extracting(JenkinsJob::getId)
+                .containsExactly("team.deploy");
+    }
+
+    @Test
+    void discovery_whenFolderIsRemovedFromConfiguration_forgetsItsJobs() {
+        JenkinsFolder team = new JenkinsFolder("team", "Team", "http://localhost:8123/job/team", 1);
+        JenkinsFolder other = new JenkinsFolder("other", "Other", "http://localhost:8123/job/other", 1);
+        jenkinsJobProperties.setFolders(List.of(team, other));
+
+        wireMock.getServer().stubFor(get(urlPathEqualTo("/job/team/api/json"))
+                .willReturn(okJson("{\"jobs\": [{\"name\": \"deploy\", \"url\": \"http://localhost:8123/job/team/job/deploy/\", \"color\": \"blue\"}]}"))
+        );
+        wireMock.getServer().stubFor(get(urlPathEqualTo("/job/other/api/json"))
+                .willReturn(okJson("{\"jobs\": [{\"name\": \"build\", \"url\": \"http://localhost:8123/job/other/job/build/\", \"color\": \"blue\"}]}"))
+        );
+        PollEngine pollEngine = new PollEngine(new SimpleMeterRegistry());
+        pollEngine.pollOnce(jenkinsJobDiscovery).block();
+
+        jenkinsJobProperties.setFolders(List.of(team));
+
+        assertThat(jenkinsJobDiscovery.getDiscoveredJobs())
+                .extracting(JenkinsJob::getId)
+                .containsExactly("team.deploy");
+        pollEngine.pollOnce(jenkinsJobDiscovery).block();
+        assertThat(jenkinsJobDiscovery.getDiscoveredJobs())
+                .extracting(JenkinsJob::getId)
+                .containsExactly("team.deploy");
+    }
+
+    @Test
+    void getTargets_whenJobSentANotificationRecently_pollsItOnlyAtTheReconcileInterval() {
+        JenkinsJob pushed = new JenkinsJob("pushed", "Pushed", "http://localhost:8123/job/pushed");
+        JenkinsJob polled = new JenkinsJob("polled", "Polled", "http://localhost:8123/job/polled");
+        jenkinsJobProperties.setJobs(List.of(pushed, polled));
+        jenkinsJobProperties.setReconcileInterval(Duration.ofMinutes(10));
+        jenkinsJobProperties.setNotificationExpiry(Duration.ofHours(1));
+        Instant start = Instant.parse("2020-01-01T00:00:00Z");
+
+        wireMock.getServer().stubFor(get(urlMatching("/job/(pushed|polled)"))
+                .willReturn(okJson("{\"color\": \"blue\", \"builds\": []}"))
+        );
+
+        subject.recordNotification(pushed);
+        assertThat(pollTargetsAt(start)).containsExactly("pushed", "polled");
+        assertThat(pollTargetsAt(start.plusSeconds(30))).containsExactly("polled");
+        assertThat(pollTargetsAt(start.plus(Duration.ofMinutes(10)))).containsExactly("pushed", "polled");
+        assertThat(pollTargetsAt(start.plus(Duration.ofMinutes(10)).plusSeconds(30))).containsExactly("polled");
+        assertThat(pollTargetsAt(start.plus(Duration.ofHours(1)).plusSeconds(30))).containsExactly("pushed", "polled");
+    }
+
+    @Test
+    void getTargets_whenReconcilePollFails_keepsTheJobDue() {
+        JenkinsJob pushed = new JenkinsJob("pushed", "Pushed", "http://localhost:8123/job/unreachable");
+        jenkinsJobProperties.setJobs(List.of(pushed));
+        jenkinsJobProperties.setNotificationExpiry(Duration.ofHours(1));
+        Instant start = Instant.parse("2020-01-01T00:00:00Z");
+
+        wireMock.getServer().stubFor(get(urlEqualTo("/job/unreachable"))
+                .willReturn(serverError())
+        );
+
+        subject.recordNotification(pushed);
+        assertThat(pollTargetsAt(start)).containsExactly("pushed");
+        assertThat(pollTargetsAt(start.plusSeconds(30))).containsExactly("pushed");
+    }
+
+    @Test
+    void findJob_matchesNotificationUrlsToConfiguredJobs() {
+        JenkinsJob root = new JenkinsJob("root", "Root", "http://localhost:8123/job/app/api/json");
+        JenkinsJob nested = new JenkinsJob("nested", "Nested", "http://localhost:8123/job/team/job/app/");
+        jenkinsJobProperties.setJobs(List.of(nested, root));
+
+        assertThat(subject.findJob("http://localhost:8123/job/app/", "job/app/")).contains(root);
+        assertThat(subject.findJob("http://jenkins.internal/job/team/job/app/", "job/team/job/app/")).contains(nested);
+        assertThat(subject.findJob(null, "job/other/")).isEmpty();
+    }
+
+    @Test
+    void pollJobs_whenJobIsNotModified_skipsPublishing() {
+        JenkinsJobPublisher cachingSubject = new JenkinsJobPublisher(
+                mockEventPublishingService,
+                WebClient.builder().filter(new HttpCacheFilter(mockEventClock, 16, 65536)).build(),
+                eventProperties,
+                jenkinsJobDiscovery,
+                mockEventClock
+        );
+        jenkinsJobProperties.setJobs(List.of(new JenkinsJob("success", "Success", "http://localhost:8123/job/success")));
+
+        wireMock.getServer().stubFor(get(urlEqualTo("/job/success"))
+                .willReturn(okJson("{\"color\": \"blue\", \"builds\": []}").withHeader("ETag", "\"v1\""))
+        );
+        wireMock.getServer().stubFor(get(urlEqualTo("/job/success"))
+                .withHeader("If-None-Match", equalTo("\"v1\""))
+                .willReturn(aResponse().withStatus(304))
+        );
+
+        PollEngine pollEngine = new PollEngine(new SimpleMeterRegistry());
+        pollEngine.pollOnce(cachingSubject).block();
+        pollEngine.pollOnce(cachingSubject).block();
+
+        wireMock.getServer().verify(2, getRequestedFor(urlEqualTo("/job/success")));
+        verify(mockEventPublishingService, times(1)).publish(any());
+    }
+
+    @Test
+    void pollJobs_whenNotModifiedAfterAnOutage_republishesTheCachedStatus() {
+        JenkinsJobPublisher cachingSubject = new JenkinsJobPublisher(
+                mockEventPublishingService,
+                WebClient.builder().filter(new HttpCacheFilter(mockEventClock, 16, 65536)).build(),
+                eventProperties,
+                jenkinsJobDiscovery,
+                mockEventClock
+        );
+        jenkinsJobProperties.setJobs(List.of(new JenkinsJob("recovering", "Recovering", "http://localhost:8123/job/recovering")));
+
+        wireMock.getServer().stubFor(get(urlEqualTo("/job/recovering"))
+                .inScenario("outage").whenScenarioStateIs(STARTED).willSetStateTo("down")
+                .willReturn(okJson("{\"color\": \"blue\", \"builds\": []}").withHeader("ETag", "\"v1\""))
+        );
+        wireMock.getServer().stubFor(get(urlEqualTo("/job/recovering"))
+                .inScenario("outage").whenScenarioStateIs("down").willSetStateTo("recovered")
+                .willReturn(serverError())
+        );
+        wireMock.getServer().stubFor(get(urlEqualTo("/job/recovering"))
+                .inScenario("outage").whenScenarioStateIs("recovered")
+                .withHeader("If-None-Match", equalTo("\"v1\""))
+                .willReturn(aResponse().withStatus(304))
+        );
+
+        PollEngine pollEngine = new PollEngine(new SimpleMeterRegistry());
+        pollEngine.pollOnce(cachingSubject).block();
+        pollEngine.pollOnce(cachingSubject).block();
+        pollEngine.pollOnce(cachingSubject).block();
+
+        var inOrder = inOrder(mockEventPublishingService);
+        inOrder.verify(mockEventPublishingService).publish(argThat(event -> event.getLevel().equals(EventLevel.OK)));
+        inOrder.verify(mockEventPublishingService).publish(argThat(event -> event.getLevel().equals(EventLevel.UNKNOWN)));
+        inOrder.verify(mockEventPublishingService).publish(argThat(event -> event.getLevel().equals(EventLevel.OK)));
+    }
+
+    @Test
+    void getNextPollDelay_whileBuildIsInProgress_pollsFaster() {
+        JenkinsJob building = new JenkinsJob("building", "Building", "http://localhost:8123/job/building");
+        JenkinsJob idle = new JenkinsJob("idle", "Idle", "http://localhost:8123/job/idle");
+        jenkinsJobProperties.setJobs(List.of(building, idle));
+
+        wireMock.getServer().stubFor(get(urlEqualTo("/job/building"))
+                .willReturn(okJson("{\"color\": \"blue_anime\", \"builds\": []}"))
+        );
+        wireMock.getServer().stubFor(get(urlEqualTo("/job/idle"))
+                .willReturn(okJson("{\"color\": \"blue\", \"builds\": []}"))
+        );
+
+        new PollEngine(new SimpleMeterRegistry()).pollOnce(subject).block();
+
+        assertThat(subject.getNextPollDelay(JenkinsJobBatch.of(building))).isEqualTo(Duration.ofSeconds(10));
+        assertThat(subject.getNextPollDelay(JenkinsJobBatch.of(idle))).isEqualTo(Duration.ofSeconds(30));
+        assertThat(subject.getNextPollDelay(new JenkinsJobBatch("http://localhost:8123", List.of(idle, building)))).isEqualTo(Duration.ofSeconds(10));
+    }
+
+    private List<String> pollTargetsAt(Instant now) {
+        when(mockEventClock.now()).thenReturn(now);
+
+        List<JenkinsJobBatch> targets = subject.getTargets();
+        Flux.fromIterable(targets)
+                .concatMap(subject::poll)
+                .blockLast();
+
+        return targets.stream()
+                .flatMap(batch -> batch.getJobs().stream())
+                .map(JenkinsJob::getId)
+                .collect(Collectors.toList());
+    }
 }
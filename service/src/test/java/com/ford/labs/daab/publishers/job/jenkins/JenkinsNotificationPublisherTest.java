@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.publishers.job.jenkins;
+
+import com.ford.labs.daab.config.event.properties.job.JenkinsJob;
+import com.ford.labs.daab.event.EventLevel;
+import com.ford.labs.daab.event.StatusEvent;
+import com.ford.labs.daab.publishers.EventPublishingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class JenkinsNotificationPublisherTest {
+    EventPublishingService mockEventPublishingService = mock(EventPublishingService.class);
+    JenkinsJobPublisher mockJenkinsJobPublisher = mock(JenkinsJobPublisher.class);
+
+    JenkinsNotificationPublisher subject = new JenkinsNotificationPublisher(mockEventPublishingService, mockJenkinsJobPublisher);
+
+    JenkinsJob job = new JenkinsJob("app", "App", "http://jenkins/job/app");
+
+    @BeforeEach
+    void setup() {
+        when(mockEventPublishingService.publish(any())).thenReturn(Mono.just(1L));
+        when(mockJenkinsJobPublisher.findJob("http://jenkins/job/app/", "job/app/")).thenReturn(Optional.of(job));
+    }
+
+    @Test
+    void receiveNotification_whenBuildStarts_publishesInProgressEvent() {
+        subject.receiveNotification(notification("STARTED", null)).block();
+
+        verify(mockEventPublishingService)
+                .publish(argThat(event ->
+                        event.getId().equals("job.jenkins.app")
+                                && event.getName().equals("App")
+                                && event.getLevel().equals(EventLevel.IN_PROGRESS)
+                                && ((StatusEvent) event).getStatusText().equals("In Progress")
+                                && event.getUrl().equals("http://jenkins/job/app/12/")
+                                && event.getTime().equals(Instant.ofEpochMilli(11231L).atOffset(ZoneOffset.UTC).format(DateTimeFormatter.ISO_DATE_TIME))
+                ));
+        verify(mockJenkinsJobPublisher).recordNotification(job);
+    }
+
+    @Test
+    void receiveNotification_whenBuildCompletes_publishesResult() {
+        subject.receiveNotification(notification("COMPLETED", "SUCCESS")).block();
+        subject.receiveNotification(notification("COMPLETED", "FAILURE")).block();
+
+        verify(mockEventPublishingService)
+                .publish(argThat(event -> event.getLevel().equals(EventLevel.OK) && ((StatusEvent) event).getStatusText().equals("Success")));
+        verify(mockEventPublishingService)
+                .publish(argThat(event -> event.getLevel().equals(EventLevel.ERROR) && ((StatusEvent) event).getStatusText().equals("Failure")));
+    }
+
+    @Test
+    void receiveNotification_whenJobIsNotTracked_doesNothing() {
+        JenkinsNotification notification = notification("COMPLETED", "SUCCESS");
+        notification.setUrl("job/other/");
+        notification.getBuild().setFullUrl("http://jenkins/job/other/3/");
+
+        StepVerifier.create(subject.receiveNotification(notification))
+                .verifyComplete();
+
+        verifyNoInteractions(mockEventPublishingService);
+    }
+
+    @Test
+    void receiveNotification_whenQueued_doesNothing() {
+        StepVerifier.create(subject.receiveNotification(notification("QUEUED", null)))
+                .verifyComplete();
+
+        verifyNoInteractions(mockEventPublishingService);
+        verify(mockJenkinsJobPublisher, never()).recordNotification(any());
+    }
+
+    private JenkinsNotification notification(String phase, String status) {
+        return JenkinsNotification.builder()
+                .name("app")
+                .url("job/app/")
+                .build(JenkinsNotification.Build.builder()
+                        .fullUrl("http://jenkins/job/app/12/")
+                        .number(12)
+                        .phase(phase)
+                        .status(status)
+                        .timestamp(11231L)
+                        .build())
+                .build();
+    }
+}
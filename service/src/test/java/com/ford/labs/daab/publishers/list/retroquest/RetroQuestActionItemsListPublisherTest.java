@@ -17,6 +17,7 @@
 package com.ford.labs.daab.publishers.list.retroquest;
 
 import com.ford.labs.daab.WireMockExtension;
+import com.ford.labs.daab.config.EventClock;
 import com.ford.labs.daab.config.event.properties.EventProperties;
 import com.ford.labs.daab.config.event.properties.list.ListProperties;
 import com.ford.labs.daab.config.event.properties.list.RetroquestTeamListProperties;
@@ -32,6 +33,9 @@ import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.List;
 
 import static com.ford.labs.daab.WireMockExtension.WIREMOCK_URL;
@@ -40,6 +44,9 @@ import static com.github.tomakehurst.wiremock.client.WireMock.get;
 import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.ok;
 import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.unauthorized;
+import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -58,8 +65,13 @@ class RetroQuestActionItemsListPublisherTest {
             .list(ListProperties.builder().build())
             .build();
 
+    private EventClock mockEventClock = mock(EventClock.class);
+    private Instant now = Instant.parse("2020-01-01T00:00:00Z");
+
     @BeforeEach void setup() {
         when(mockEventPublishingService.publish(any())).thenReturn(Mono.just(1L));
+        when(mockEventClock.now()).thenAnswer(invocation -> now);
+        wireMock.getServer().resetRequests();
     }
 
     @Test void whenConfigurationPresent_getsActionItemsFromRetroquestAndConvertsToListEvent() {
@@ -78,7 +90,9 @@ class RetroQuestActionItemsListPublisherTest {
         var subject = new RetroQuestActionItemsListPublisher(
                 mockEventPublishingService,
                 properties,
-                WebClient.create()
+                WebClient.create(),
+                mockEventClock,
+                Duration.ofMinutes(30)
         );
 
         properties.getList().setRetroquest(
@@ -136,4 +150,102 @@ class RetroQuestActionItemsListPublisherTest {
                 .hasSize(1)
                 .contains(new ListEvent.Section("Action Items", List.of("Do something (The User)", "Don't do something")));
     }
-}
\ No newline at end of file
+
+    @Test void reusesTheTokenUntilItExpires() {
+        String token = jwt(now.plus(Duration.ofHours(1)));
+        stubTeam(token);
+        var subject = subject();
+
+        subject.pollActionItems().blockLast();
+        now = now.plus(Duration.ofMinutes(50));
+        subject.pollActionItems().blockLast();
+        wireMock.getServer().verify(1, postRequestedFor(urlEqualTo("/api/team/login")));
+
+        now = now.plus(Duration.ofMinutes(10));
+        subject.pollActionItems().blockLast();
+        wireMock.getServer().verify(2, postRequestedFor(urlEqualTo("/api/team/login")));
+        wireMock.getServer().verify(3, getRequestedFor(urlEqualTo("/api/team/team/action-items")));
+    }
+
+    @Test void whenTokenIsNotAJwt_usesTheConfiguredTtl() {
+        stubTeam("opaque");
+        var subject = subject();
+
+        subject.pollActionItems().blockLast();
+        now = now.plus(Duration.ofMinutes(29));
+        subject.pollActionItems().blockLast();
+        wireMock.getServer().verify(1, postRequestedFor(urlEqualTo("/api/team/login")));
+
+        now = now.plus(Duration.ofMinutes(2));
+        subject.pollActionItems().blockLast();
+        wireMock.getServer().verify(2, postRequestedFor(urlEqualTo("/api/team/login")));
+    }
+
+    @Test void whenTokenIsRejected_logsInOnceMoreAndRetries() {
+        wireMock.getServer().stubFor(post(urlEqualTo("/api/team/login")).inScenario("login").whenScenarioStateIs(STARTED)
+                .willReturn(ok().withBody("revoked")).willSetStateTo("renewed"));
+        wireMock.getServer().stubFor(post(urlEqualTo("/api/team/login")).inScenario("login").whenScenarioStateIs("renewed")
+                .willReturn(ok().withBody("renewed")));
+        wireMock.getServer().stubFor(get(urlEqualTo("/api/team/team/action-items")).withHeader("Authorization", equalTo("Bearer revoked"))
+                .willReturn(unauthorized()));
+        wireMock.getServer().stubFor(get(urlEqualTo("/api/team/team/action-items")).withHeader("Authorization", equalTo("Bearer renewed"))
+                .willReturn(ok().withHeader("Content-Type", MediaType.APPLICATION_JSON_VALUE).withBody("[]")));
+
+        subject().pollActionItems()
+                .as(StepVerifier::create)
+                .expectNext(1L)
+                .verifyComplete();
+
+        wireMock.getServer().verify(2, postRequestedFor(urlEqualTo("/api/team/login")));
+        wireMock.getServer().verify(2, getRequestedFor(urlEqualTo("/api/team/team/action-items")));
+    }
+
+    @Test void whenLoginIsRejected_doesNotLogInAgain() {
+        wireMock.getServer().stubFor(post(urlEqualTo("/api/team/login")).willReturn(unauthorized()));
+
+        subject().pollActionItems()
+                .as(StepVerifier::create)
+                .verifyError();
+
+        wireMock.getServer().verify(1, postRequestedFor(urlEqualTo("/api/team/login")));
+        wireMock.getServer().verify(0, getRequestedFor(urlEqualTo("/api/team/team/action-items")));
+    }
+
+    @Test void whenTeamIsRemovedFromConfiguration_forgetsItsToken() {
+        stubTeam("opaque");
+        var subject = subject();
+        List<RetroquestTeamListProperties> teams = properties.getList().getRetroquest();
+
+        subject.pollActionItems().blockLast();
+        properties.getList().setRetroquest(List.of());
+        assertThat(subject.getTargets()).isEmpty();
+
+        properties.getList().setRetroquest(teams);
+        subject.pollActionItems().blockLast();
+        wireMock.getServer().verify(2, postRequestedFor(urlEqualTo("/api/team/login")));
+    }
+
+    private RetroQuestActionItemsListPublisher subject() {
+        properties.getList().setRetroquest(List.of(new RetroquestTeamListProperties("team", "The Team", "password", WIREMOCK_URL)));
+        return new RetroQuestActionItemsListPublisher(
+                mockEventPublishingService,
+                properties,
+                WebClient.create(),
+                mockEventClock,
+                Duration.ofMinutes(30)
+        );
+    }
+
+    private void stubTeam(String token) {
+        wireMock.getServer().stubFor(post(urlEqualTo("/api/team/login")).willReturn(ok().withBody(token)));
+        wireMock.getServer().stubFor(get(urlEqualTo("/api/team/team/action-items"))
+                .willReturn(ok().withHeader("Content-Type", MediaType.APPLICATION_JSON_VALUE).withBody("[]")));
+    }
+
+    private static String jwt(Instant expiresAt) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString("{\"alg\":\"HS512\"}".getBytes())
+                + "." + encoder.encodeToString(String.format("{\"sub\":\"team\",\"exp\":%d}", expiresAt.getEpochSecond()).getBytes())
+                + ".signature";
+    }
+}
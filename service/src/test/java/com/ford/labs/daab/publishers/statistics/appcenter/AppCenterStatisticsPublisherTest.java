@@ -25,20 +25,25 @@ import com.ford.labs.daab.config.event.properties.statistics.HockeyappStatistics
 import com.ford.labs.daab.config.event.properties.statistics.StatisticsProperties;
 import com.ford.labs.daab.event.EventType;
 import com.ford.labs.daab.event.StatisticsEvent;
+import com.ford.labs.daab.http.HttpCacheFilter;
+import com.ford.labs.daab.polling.PollEngine;
 import com.ford.labs.daab.publishers.EventPublishingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.assertj.core.util.Lists;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
 import static com.ford.labs.daab.WireMockExtension.WIREMOCK_URL;
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
-import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.*;
@@ -91,18 +96,56 @@ class AppCenterStatisticsPublisherTest {
 
     @Test
     void eachAppCenterAppIsPublishedAsAStatisticsEvent() {
-        subject.pollApps();
+        new PollEngine(new SimpleMeterRegistry()).pollOnce(subject).block();
 
         verify(mockEventPublishingService).publish(buildEvent(app, "active sessions today", "35"));
         verify(mockEventPublishingService).publish(buildEvent(app2, "active sessions today", "3"));
     }
 
     @Test
-    public void haltsJobExecutionOnFailureToPublishAnyEvent() {
+    public void haltsAppPollOnFailureToPublishItsEvent() {
         when(mockEventPublishingService.publish(buildEvent(app, "active sessions today", "35"))).thenThrow(new RuntimeException("I can't connect to Redis"));
 
-        assertThatThrownBy(() -> subject.pollApps())
-                .hasMessage("Error publishing event for app statistics from AppCenter.");
+        StepVerifier.create(subject.poll(app))
+                .verifyErrorMessage("Error publishing event for app statistics from AppCenter.");
+    }
+
+    @Test
+    public void failureToPublishOneAppDoesNotStopOtherApps() {
+        when(mockEventPublishingService.publish(buildEvent(app, "active sessions today", "35"))).thenThrow(new RuntimeException("I can't connect to Redis"));
+
+        new PollEngine(new SimpleMeterRegistry()).pollOnce(subject).block();
+
+        verify(mockEventPublishingService).publish(buildEvent(app2, "active sessions today", "3"));
+    }
+
+    @Test
+    public void republishesTheCachedStatisticsWhenNotModifiedAfterAnOutage() {
+        when(mockEventClock.now()).thenReturn(Instant.parse("2020-01-01T00:00:00Z"));
+        AppCenterStatisticsPublisher cachingSubject = new AppCenterStatisticsPublisher(
+                eventProperties,
+                WebClient.builder().filter(new HttpCacheFilter(mockEventClock, 16, 65536)).build(),
+                mockEventPublishingService,
+                mockEventClock,
+                WIREMOCK_URL);
+        String url = String.format("/v0.1/apps/testowner/testapp/analytics/session_counts?start=%s&interval=P1D", LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE));
+
+        wireMock.getServer().stubFor(get(urlEqualTo(url))
+                .inScenario("outage").whenScenarioStateIs(STARTED).willSetStateTo("down")
+                .willReturn(okJson("[{\"datetime\": \"2019-05-23T00:00:00Z\", \"count\": 35}]").withHeader("ETag", "\"v1\"")));
+        wireMock.getServer().stubFor(get(urlEqualTo(url))
+                .inScenario("outage").whenScenarioStateIs("down").willSetStateTo("recovered")
+                .willReturn(serverError()));
+        wireMock.getServer().stubFor(get(urlEqualTo(url))
+                .inScenario("outage").whenScenarioStateIs("recovered")
+                .withHeader("If-None-Match", equalTo("\"v1\""))
+                .willReturn(aResponse().withStatus(304)));
+
+        cachingSubject.poll(app).onErrorResume(e -> Mono.empty()).block();
+        cachingSubject.poll(app).onErrorResume(e -> Mono.empty()).block();
+        cachingSubject.poll(app).onErrorResume(e -> Mono.empty()).block();
+
+        verify(mockEventPublishingService, times(2)).publish(buildEvent(app, "active sessions today", "35"));
     }
 
     @Test
@@ -118,7 +161,7 @@ class AppCenterStatisticsPublisherTest {
                 mockEventClock,
                 WIREMOCK_URL);
 
-        publisher.pollApps();
+        new PollEngine(new SimpleMeterRegistry()).pollOnce(publisher).block();
 
         verify(mockEventPublishingService, never()).publish(any());
     }
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.publishers.weather.nws;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveHashOperations;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NwsPointsCacheTest {
+    ReactiveRedisTemplate<String, String> mockStringTemplate = mock(ReactiveRedisTemplate.class);
+    ReactiveHashOperations<String, String, String> mockHashOperations = mock(ReactiveHashOperations.class);
+
+    NwsPointsCache subject = new NwsPointsCache(mockStringTemplate, Duration.ofDays(30));
+
+    @BeforeEach
+    void setup() {
+        when(mockStringTemplate.<String, String>opsForHash()).thenReturn(mockHashOperations);
+    }
+
+    @Test
+    void get_readsTheForecastUrlsStoredForThePoint() {
+        when(mockHashOperations.entries("nws-points.22.222,44.444")).thenReturn(Flux.just(
+                Map.entry("forecast", "/forecast"),
+                Map.entry("forecastHourly", "/forecast/hourly")
+        ));
+
+        StepVerifier.create(subject.get("22.222", "44.444"))
+                .expectNext(new NwsPointsResponse.Properties("/forecast", "/forecast/hourly"))
+                .verifyComplete();
+    }
+
+    @Test
+    void get_whenNothingIsStored_completesEmpty() {
+        when(mockHashOperations.entries(anyString())).thenReturn(Flux.empty());
+
+        StepVerifier.create(subject.get("22.222", "44.444"))
+                .verifyComplete();
+    }
+
+    @Test
+    void get_whenRedisFails_treatsItAsAMiss() {
+        when(mockHashOperations.entries(anyString())).thenReturn(Flux.error(new IllegalStateException("Connection refused")));
+
+        StepVerifier.create(subject.get("22.222", "44.444"))
+                .verifyComplete();
+    }
+
+    @Test
+    void put_storesTheUrlsWithTheTtl() {
+        when(mockHashOperations.delete(anyString())).thenReturn(Mono.just(true));
+        when(mockHashOperations.putAll(anyString(), any())).thenReturn(Mono.just(true));
+        when(mockStringTemplate.expire(anyString(), any())).thenReturn(Mono.just(true));
+
+        StepVerifier.create(subject.put("22.222", "44.444", new NwsPointsResponse.Properties("/forecast", "/forecast/hourly")))
+                .expectNext(true)
+                .verifyComplete();
+
+        verify(mockHashOperations).putAll("nws-points.22.222,44.444", Map.of("forecast", "/forecast", "forecastHourly", "/forecast/hourly"));
+        verify(mockStringTemplate).expire("nws-points.22.222,44.444", Duration.ofDays(30));
+    }
+}
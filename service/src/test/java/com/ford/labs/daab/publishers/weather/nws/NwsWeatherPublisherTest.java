@@ -19,12 +19,16 @@ package com.ford.labs.daab.publishers.weather.nws;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ford.labs.daab.WireMockExtension;
+import com.ford.labs.daab.config.EventClock;
 import com.ford.labs.daab.config.event.properties.EventProperties;
 import com.ford.labs.daab.config.event.properties.weather.NwsWeatherProperties;
 import com.ford.labs.daab.config.event.properties.weather.WeatherProperties;
 import com.ford.labs.daab.event.Event;
 import com.ford.labs.daab.event.WeatherEvent;
+import com.ford.labs.daab.http.HttpCacheFilter;
+import com.ford.labs.daab.polling.PollEngine;
 import com.ford.labs.daab.publishers.EventPublishingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
@@ -33,13 +37,19 @@ import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
 import java.util.List;
 
 import static com.ford.labs.daab.WireMockExtension.WIREMOCK_URL;
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.internal.verification.VerificationModeFactory.times;
@@ -47,6 +57,7 @@ import static org.mockito.internal.verification.VerificationModeFactory.times;
 class NwsWeatherPublisherTest {
 
     EventPublishingService mockEventPublishingService = mock(EventPublishingService.class);
+    NwsPointsCache mockPointsCache = mock(NwsPointsCache.class);
 
     NwsWeatherPublisher subject;
 
@@ -68,11 +79,17 @@ class NwsWeatherPublisherTest {
         subject = new NwsWeatherPublisher(
                 mockEventPublishingService,
                 WebClient.create(),
+                mockPointsCache,
                 eventProperties,
                 WIREMOCK_URL
         );
 
         when(mockEventPublishingService.publish(any())).thenReturn(Mono.just(1L));
+        when(mockPointsCache.get(anyString(), anyString())).thenReturn(Mono.empty());
+        when(mockPointsCache.put(anyString(), anyString(), any())).thenReturn(Mono.just(true));
+        when(mockPointsCache.evict(anyString(), anyString())).thenReturn(Mono.just(true));
+
+        wireMock.getServer().resetRequests();
     }
 
     @Test
@@ -99,7 +116,7 @@ class NwsWeatherPublisherTest {
                         .withBody(mapper.writeValueAsBytes(validForecastResponse)))
         );
 
-        subject.pollWeather();
+        new PollEngine(new SimpleMeterRegistry()).pollOnce(subject).block();
 
 
         var eventCaptor = ArgumentCaptor.forClass(Event.class);
@@ -121,4 +138,131 @@ class NwsWeatherPublisherTest {
                 .hasFieldOrPropertyWithValue("temperature", 0)
                 .hasFieldOrPropertyWithValue("temperatureUnit", "F");
     }
+
+    @Test
+    void whenPointsAreCached_fetchesOnlyTheForecast() throws JsonProcessingException {
+        when(mockPointsCache.get("22.222", "44.444")).thenReturn(Mono.just(new NwsPointsResponse.Properties("/forecast/cached")));
+        stubForecast("/forecast/cached");
+
+        new PollEngine(new SimpleMeterRegistry()).pollOnce(subject).block();
+
+        verify(mockEventPublishingService).publish(any());
+        wireMock.getServer().verify(0, getRequestedFor(urlPathMatching("/points/.*")));
+        wireMock.getServer().verify(1, getRequestedFor(urlEqualTo("/forecast/cached")));
+    }
+
+    @Test
+    void whenPointsAreNotCached_resolvesAndCachesThem() throws JsonProcessingException {
+        stubPoints("/forecast/resolved");
+        stubForecast("/forecast/resolved");
+
+        new PollEngine(new SimpleMeterRegistry()).pollOnce(subject).block();
+
+        verify(mockPointsCache).put(eq("22.222"), eq("44.444"), argThat(points -> points.getForecast().equals("/forecast/resolved")));
+        verify(mockEventPublishingService).publish(any());
+    }
+
+    @Test
+    void whenCachedForecastUrlIsGone_resolvesThePointsAgain() throws JsonProcessingException {
+        when(mockPointsCache.get("22.222", "44.444")).thenReturn(Mono.just(new NwsPointsResponse.Properties("/forecast/moved")));
+        wireMock.getServer().stubFor(get(urlEqualTo("/forecast/moved")).willReturn(notFound()));
+        stubPoints("/forecast/current");
+        stubForecast("/forecast/current");
+
+        new PollEngine(new SimpleMeterRegistry()).pollOnce(subject).block();
+
+        verify(mockPointsCache).evict("22.222", "44.444");
+        verify(mockPointsCache).put(eq("22.222"), eq("44.444"), argThat(points -> points.getForecast().equals("/forecast/current")));
+        verify(mockEventPublishingService).publish(any());
+    }
+
+    @Test
+    void whenResolvedPointsAreNotFound_doesNotResolveThemAgain() {
+        wireMock.getServer().stubFor(get(urlEqualTo("/points/22.222,44.444")).willReturn(notFound()));
+
+        new PollEngine(new SimpleMeterRegistry()).pollOnce(subject).block();
+
+        wireMock.getServer().verify(1, getRequestedFor(urlEqualTo("/points/22.222,44.444")));
+        verify(mockPointsCache, never()).evict(anyString(), anyString());
+        verify(mockEventPublishingService, never()).publish(any());
+    }
+
+    @Test
+    void whenFreshlyResolvedForecastUrlIsNotFound_doesNotResolveThePointsAgain() throws JsonProcessingException {
+        stubPoints("/forecast/missing");
+        wireMock.getServer().stubFor(get(urlEqualTo("/forecast/missing")).willReturn(notFound()));
+
+        new PollEngine(new SimpleMeterRegistry()).pollOnce(subject).block();
+
+        wireMock.getServer().verify(1, getRequestedFor(urlEqualTo("/points/22.222,44.444")));
+        verify(mockPointsCache, never()).evict(anyString(), anyString());
+        verify(mockEventPublishingService, never()).publish(any());
+    }
+
+    @Test
+    void whenForecastIsNotModifiedAfterAnOutage_republishesTheCachedForecast() throws JsonProcessingException {
+        EventClock mockEventClock = mock(EventClock.class);
+        when(mockEventClock.now()).thenReturn(Instant.parse("2020-01-01T00:00:00Z"));
+        NwsWeatherPublisher cachingSubject = new NwsWeatherPublisher(
+                mockEventPublishingService,
+                WebClient.builder().filter(new HttpCacheFilter(mockEventClock, 16, 65536)).build(),
+                mockPointsCache,
+                eventProperties,
+                WIREMOCK_URL
+        );
+        when(mockPointsCache.get("22.222", "44.444")).thenReturn(Mono.just(new NwsPointsResponse.Properties("/forecast/recovering")));
+
+        var forecast = new NwsForecastResponse(
+                new NwsForecastResponse.Properties("2019-01-01T00:00:00.000Z", List.of(
+                        new NwsForecastResponse.Properties.Period(0, "F", "Mostly Cold")
+                ))
+        );
+        wireMock.getServer().stubFor(get(urlEqualTo("/forecast/recovering"))
+                .inScenario("outage").whenScenarioStateIs(STARTED).willSetStateTo("down")
+                .willReturn(ok()
+                        .withHeader("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                        .withHeader("ETag", "\"v1\"")
+                        .withBody(mapper.writeValueAsBytes(forecast)))
+        );
+        wireMock.getServer().stubFor(get(urlEqualTo("/forecast/recovering"))
+                .inScenario("outage").whenScenarioStateIs("down").willSetStateTo("recovered")
+                .willReturn(serverError())
+        );
+        wireMock.getServer().stubFor(get(urlEqualTo("/forecast/recovering"))
+                .inScenario("outage").whenScenarioStateIs("recovered")
+                .withHeader("If-None-Match", equalTo("\"v1\""))
+                .willReturn(aResponse().withStatus(304))
+        );
+
+        PollEngine pollEngine = new PollEngine(new SimpleMeterRegistry());
+        pollEngine.pollOnce(cachingSubject).block();
+        pollEngine.pollOnce(cachingSubject).block();
+        pollEngine.pollOnce(cachingSubject).block();
+
+        wireMock.getServer().verify(3, getRequestedFor(urlEqualTo("/forecast/recovering")));
+        verify(mockEventPublishingService, times(2)).publish(argThat(event ->
+                event.getId().equals("weather.valid") && ((WeatherEvent) event).getCondition().equals("Mostly Cold")));
+    }
+
+    private void stubPoints(String forecastUrl) throws JsonProcessingException {
+        wireMock.getServer().stubFor(get(urlEqualTo("/points/22.222,44.444"))
+                .willReturn(ok()
+                        .withHeader("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                        .withBody(mapper.writeValueAsBytes(new NwsPointsResponse(new NwsPointsResponse.Properties(forecastUrl)))))
+        );
+    }
+
+    private void stubForecast(String url) throws JsonProcessingException {
+        var forecast = new NwsForecastResponse(
+                new NwsForecastResponse.Properties("2019-01-01T00:00:00.000Z", List.of(
+                        new NwsForecastResponse.Properties.Period(0, "F", "Mostly Cold")
+                ))
+        );
+
+        wireMock.getServer().stubFor(get(urlEqualTo(url))
+                .willReturn(ok()
+                        .withHeader("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                        .withBody(mapper.writeValueAsBytes(forecast)))
+        );
+    }
 }
@@ -16,14 +16,20 @@
 
 package com.ford.labs.daab.radiator;
 
+import com.ford.labs.daab.config.radiator.properties.EventDisplayProperties;
+import com.ford.labs.daab.config.radiator.properties.PageProperties;
 import com.ford.labs.daab.config.radiator.properties.RadiatorProperties;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.ReactiveValueOperations;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -39,6 +45,7 @@ class RadiatorConfigurationServiceTest {
     public void setUpTemplate() {
         when(mockTemplate.opsForValue()).thenReturn(mockOpsForValue);
         when(mockOpsForValue.set(any(),any())).thenReturn(Mono.just(true));
+        when(mockTemplate.convertAndSend(any(), any())).thenReturn(Mono.just(1L));
     }
 
     @Test
@@ -65,6 +72,56 @@ class RadiatorConfigurationServiceTest {
                 .verifyComplete();
 
         verify(mockOpsForValue).set("radiator",expectedRadiatorProperties);
+        verify(mockTemplate).convertAndSend(RadiatorConfigurationService.UPDATED_CHANNEL, expectedRadiatorProperties);
+    }
+
+    @Test
+    public void getRoutes_compilesStoredConfigurationAndFollowsUpdates() {
+        when(mockOpsForValue.get("radiator")).thenReturn(Mono.just(radiatorWithTile("health.github")));
+
+        subject.getRoutes()
+                .as(StepVerifier::create)
+                .assertNext(routes -> assertThat(routes.getIds()).containsExactly("health.github"))
+                .then(() -> subject.setConfiguration(radiatorWithTile("job.pipeline")).block())
+                .assertNext(routes -> assertThat(routes.getIds()).containsExactly("job.pipeline"))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    public void getRoutes_withoutStoredConfiguration_routesNothing() {
+        when(mockOpsForValue.get("radiator")).thenReturn(Mono.empty());
+
+        subject.getRoutes()
+                .as(StepVerifier::create)
+                .assertNext(routes -> assertThat(routes.getIds()).isEmpty())
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    public void getRoutes_whenUpdatedWhileLoading_keepsTheUpdate() {
+        MonoProcessor<RadiatorProperties> stored = MonoProcessor.create();
+        when(mockOpsForValue.get("radiator")).thenReturn(stored);
+
+        subject.getRoutes()
+                .as(StepVerifier::create)
+                .then(() -> subject.setConfiguration(radiatorWithTile("job.pipeline")).block())
+                .then(() -> stored.onNext(radiatorWithTile("health.github")))
+                .assertNext(routes -> assertThat(routes.getIds()).containsExactly("job.pipeline"))
+                .expectNoEvent(Duration.ofMillis(100))
+                .thenCancel()
+                .verify();
+    }
+
+    private static RadiatorProperties radiatorWithTile(String id) {
+        var tile = new EventDisplayProperties();
+        tile.setId(id);
+        var page = new PageProperties();
+        page.getTiles().add(tile);
+        var radiator = new RadiatorProperties();
+        radiator.getPages().add(page);
+        return radiator;
     }
 
 }
\ No newline at end of file
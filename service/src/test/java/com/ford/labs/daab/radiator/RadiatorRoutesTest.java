@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.radiator;
+
+import com.ford.labs.daab.config.radiator.properties.EventDisplayProperties;
+import com.ford.labs.daab.config.radiator.properties.PageProperties;
+import com.ford.labs.daab.config.radiator.properties.RadiatorProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RadiatorRoutesTest {
+    private RadiatorRoutes subject = RadiatorRoutes.compile(radiator());
+
+    @Test
+    public void getIds_withoutPage_returnsEveryTileOnTheRadiator() {
+        assertThat(subject.getName()).isEqualTo("Sample");
+        assertThat(subject.getIds()).containsExactlyInAnyOrder("weather.annarbor", "quote.upwise", "list.pipeline");
+        assertThat(subject.getIds(null)).isEqualTo(subject.getIds());
+    }
+
+    @Test
+    public void getIds_withPageNameOrIndex_returnsTilesOnThatPage() {
+        assertThat(subject.getIds("Pipeline")).containsExactly("list.pipeline");
+        assertThat(subject.getIds("0")).containsExactlyInAnyOrder("weather.annarbor", "quote.upwise");
+    }
+
+    @Test
+    public void getIds_withUnknownPage_returnsEveryTileOnTheRadiator() {
+        assertThat(subject.getIds("Tomorrow")).isEqualTo(subject.getIds());
+        assertThat(subject.getIds("7")).isEqualTo(subject.getIds());
+    }
+
+    private static RadiatorProperties radiator() {
+        var radiator = new RadiatorProperties();
+        radiator.setName("Sample");
+        radiator.setPages(List.of(
+                page("Today", "weather.annarbor", "quote.upwise"),
+                page("Pipeline", "list.pipeline")
+        ));
+        return radiator;
+    }
+
+    private static PageProperties page(String name, String... ids) {
+        var page = new PageProperties();
+        page.setName(name);
+        for (String id : ids) {
+            var tile = new EventDisplayProperties();
+            tile.setId(id);
+            page.getTiles().add(tile);
+        }
+        return page;
+    }
+}
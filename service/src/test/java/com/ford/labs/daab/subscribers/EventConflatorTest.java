@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.subscribers;
+
+import com.ford.labs.daab.cache.EventRecord;
+import com.ford.labs.daab.event.HealthEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.DirectProcessor;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventConflatorTest {
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private EventConflator subject = new EventConflator(meterRegistry, 2);
+
+    @Test
+    void conflate_withFastSubscriber_passesEveryRecordThrough() {
+        StepVerifier.create(subject.conflate(Flux.just(record("a", "1"), record("a", "2"), record("b", "1")), Flux.empty()).map(this::payload))
+                .expectNext("a:1", "a:2", "b:1")
+                .verifyComplete();
+    }
+
+    @Test
+    void conflate_withSlowSubscriber_replacesPendingVersionsOfTheSameEvent() {
+        DirectProcessor<EventRecord> records = DirectProcessor.create();
+
+        StepVerifier.create(subject.conflate(records, Flux.empty()).map(this::payload), 0)
+                .then(() -> {
+                    records.onNext(record("a", "1"));
+                    records.onNext(record("b", "1"));
+                    records.onNext(record("a", "2"));
+                })
+                .thenRequest(2)
+                .expectNext("a:2", "b:1")
+                .then(records::onComplete)
+                .verifyComplete();
+
+        assertThat(meterRegistry.get("event.subscription.frames").tag("outcome", "coalesced").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void conflate_whenPendingRecordsAreFull_resyncsInsteadOfDroppingAnEvent() {
+        DirectProcessor<EventRecord> records = DirectProcessor.create();
+        Flux<EventRecord> snapshot = Flux.just(versioned("a", 2), versioned("b", 1), versioned("c", 1));
+
+        StepVerifier.create(subject.conflate(records, snapshot).map(this::payload), 0)
+                .then(() -> {
+                    records.onNext(versioned("a", 1));
+                    records.onNext(versioned("a", 2));
+                    records.onNext(versioned("b", 1));
+                    records.onNext(versioned("c", 1));
+                })
+                .thenRequest(4)
+                .expectNext("c:{\"version\":1,\"id\":\"c\"}", "a:{\"version\":2,\"id\":\"a\"}", "b:{\"version\":1,\"id\":\"b\"}")
+                .then(records::onComplete)
+                .verifyComplete();
+
+        assertThat(meterRegistry.get("event.subscription.frames").tag("outcome", "resynced").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void conflate_afterSendingAVersion_dropsTheSameVersionFromAResync() {
+        DirectProcessor<EventRecord> records = DirectProcessor.create();
+        Flux<EventRecord> snapshot = Flux.just(versioned("a", 1), versioned("b", 1), versioned("c", 1));
+
+        StepVerifier.create(subject.conflate(records, snapshot).map(EventRecord::getId), 0)
+                .then(() -> records.onNext(versioned("a", 1)))
+                .thenRequest(1)
+                .expectNext("a")
+                .then(() -> {
+                    records.onNext(versioned("b", 1));
+                    records.onNext(versioned("c", 1));
+                    records.onNext(versioned("d", 1));
+                })
+                .thenRequest(3)
+                .expectNext("d", "b", "c")
+                .then(records::onComplete)
+                .verifyComplete();
+    }
+
+    @Test
+    void conflate_dropsVersionsOlderThanOneAlreadySeen() {
+        StepVerifier.create(subject.conflate(Flux.just(
+                versioned("a", 2), versioned("a", 1), versioned("b", 1), versioned("a", 2), versioned("a", 3)
+        ), Flux.empty()).map(EventRecord::getVersion))
+                .expectNext(2L, 1L, 3L)
+                .verifyComplete();
+
+        assertThat(meterRegistry.get("event.subscription.frames").tag("outcome", "stale").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void conflate_whileADeletionIsPending_dropsACopyReadBeforeIt() {
+        DirectProcessor<EventRecord> records = DirectProcessor.create();
+
+        StepVerifier.create(subject.conflate(records, Flux.empty()), 0)
+                .then(() -> {
+                    records.onNext(EventRecord.tombstone("a", 5));
+                    records.onNext(versioned("a", 4));
+                })
+                .thenRequest(1)
+                .assertNext(record -> assertThat(record.isDeleted()).isTrue())
+                .then(() -> records.onNext(versioned("a", 3)))
+                .then(records::onComplete)
+                .verifyComplete();
+
+        assertThat(meterRegistry.get("event.subscription.frames").tag("outcome", "stale").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void conflate_whenCancelled_cancelsUpstream() {
+        DirectProcessor<EventRecord> records = DirectProcessor.create();
+
+        StepVerifier.create(subject.conflate(records, Flux.empty()))
+                .thenCancel()
+                .verify();
+
+        assertThat(records.hasDownstreams()).isFalse();
+    }
+
+    private String payload(EventRecord record) {
+        return record.getId() + ":" + record.getJsonString();
+    }
+
+    private static EventRecord versioned(String id, long version) {
+        return new EventRecord(id, ("{\"version\":" + version + ",\"id\":\"" + id + "\"}").getBytes(), new HealthEvent());
+    }
+
+    private static EventRecord record(String id, String version) {
+        return new EventRecord(id, version.getBytes(), new HealthEvent());
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2020 Ford Motor Company
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package com.ford.labs.daab.subscribers;
+
+import com.ford.labs.daab.event.EventType;
+import com.ford.labs.daab.subscribers.model.SubscriptionRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventFilterTest {
+    @Test
+    void of_withNothingRequested_matchesEverything() {
+        EventFilter filter = EventFilter.of(new SubscriptionRequest());
+
+        assertThat(filter.matches("health.anything")).isTrue();
+        assertThat(filter.matches("job.anything")).isTrue();
+    }
+
+    @Test
+    void of_matchesIdsPrefixesAndTypes() {
+        EventFilter filter = EventFilter.of(
+                List.of("quote.upwise"),
+                List.of("job.team-a."),
+                List.of(EventType.WEATHER)
+        );
+
+        assertThat(filter.matches("quote.upwise")).isTrue();
+        assertThat(filter.matches("quote.hourofpower")).isFalse();
+        assertThat(filter.matches("job.team-a.build")).isTrue();
+        assertThat(filter.matches("job.team-b.build")).isFalse();
+        assertThat(filter.matches("weather.annarbor")).isTrue();
+        assertThat(filter.matches("health.github")).isFalse();
+    }
+
+    @Test
+    void ofType_withAll_matchesEverything() {
+        assertThat(EventFilter.ofType(EventType.ALL).matches("health.github")).isTrue();
+        assertThat(EventFilter.ofType(EventType.HEALTH).matches("health.github")).isTrue();
+        assertThat(EventFilter.ofType(EventType.HEALTH).matches("job.github")).isFalse();
+    }
+
+    @Test
+    void of_withUnknownType_ignoresIt() {
+        assertThat(EventFilter.of(List.of(), List.of(), List.of("NOT_A_TYPE", EventType.JOB)).matches("job.build")).isTrue();
+        assertThat(EventFilter.of(List.of(), List.of(), List.of("NOT_A_TYPE", EventType.JOB)).matches("health.github")).isFalse();
+    }
+
+    @Test
+    void of_withOnlyUnknownTypes_matchesNothing() {
+        EventFilter filter = EventFilter.of(List.of(), List.of(), List.of("WETHER"));
+
+        assertThat(filter.matchesEverything()).isFalse();
+        assertThat(filter.matches("health.github")).isFalse();
+        assertThat(filter.matches("weather.annarbor")).isFalse();
+    }
+
+    @Test
+    void of_withNullType_ignoresIt() {
+        assertThat(EventFilter.of(List.of(), List.of(), Arrays.asList(null, EventType.JOB)).matches("job.build")).isTrue();
+        assertThat(EventFilter.of(List.of(), List.of(), Arrays.asList(null, EventType.JOB)).matches("health.github")).isFalse();
+        assertThat(EventFilter.ofType(null).matches("health.github")).isTrue();
+    }
+
+    @Test
+    void of_withNullRequest_matchesEverything() {
+        assertThat(EventFilter.of((SubscriptionRequest) null).matches("health.github")).isTrue();
+    }
+}
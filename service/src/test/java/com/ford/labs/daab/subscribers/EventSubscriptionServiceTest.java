@@ -16,50 +16,61 @@
 
 package com.ford.labs.daab.subscribers;
 
+import com.ford.labs.daab.cache.EventCache;
+import com.ford.labs.daab.cache.EventRecord;
+import com.ford.labs.daab.cache.EventStream;
 import com.ford.labs.daab.event.Event;
 import com.ford.labs.daab.event.EventType;
 import com.ford.labs.daab.event.HealthEvent;
 import com.ford.labs.daab.event.JobEvent;
 import com.ford.labs.daab.event.StatisticsEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.redis.connection.ReactiveSubscription;
-import org.springframework.data.redis.core.ReactiveHashOperations;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import reactor.core.publisher.DirectProcessor;
 import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
 
-import static org.mockito.ArgumentMatchers.any;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class EventSubscriptionServiceTest {
     private EventSubscriptionService subject;
 
     private ReactiveRedisTemplate mockEventTemplate;
-    private ReactiveHashOperations mockEventHashOperations;
+    private EventCache mockEventCache;
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private Jackson2JsonRedisSerializer<Event> eventSerializer = new Jackson2JsonRedisSerializer<>(Event.class);
 
     @BeforeEach
     void setup() {
-        mockEventHashOperations = mock(ReactiveHashOperations.class);
         mockEventTemplate = mock(ReactiveRedisTemplate.class);
-        this.subject = new EventSubscriptionService(mockEventTemplate);
-
-        when(mockEventTemplate.opsForHash(any())).thenReturn(mockEventHashOperations);
+        mockEventCache = mock(EventCache.class);
+        this.subject = new EventSubscriptionService(
+                new EventStream(mockEventTemplate, eventSerializer),
+                mockEventCache,
+                new EventConflator(meterRegistry, 2)
+        );
     }
 
     @Test
     void subscribe_returnsFluxSubscribedToRedisCache() {
-        Event jobEvent = new JobEvent();
-        Event healthEvent = new HealthEvent();
+        Event jobEvent = jobEvent();
+        Event healthEvent = healthEvent();
         Event statisticsEvent = new StatisticsEvent();
 
         when(mockEventTemplate.listenToPattern(anyString()))
                 .thenReturn(Flux.just(
-                        new ReactiveSubscription.ChannelMessage<>("event.job.something", jobEvent),
-                        new ReactiveSubscription.ChannelMessage<>("event.health.something", healthEvent),
-                        new ReactiveSubscription.ChannelMessage<>("event.statistics.something", statisticsEvent)
+                        message("event.job.something", jobEvent),
+                        message("event.health.something", healthEvent),
+                        message("event.statistics.something", statisticsEvent)
                 ));
 
         StepVerifier.create(subject.subscribe(EventType.ALL))
@@ -71,15 +82,15 @@ class EventSubscriptionServiceTest {
 
     @Test
     void getCachedEvents_returnsFluxContainingCachedEvents() {
-        Event jobEvent = new JobEvent();
-        Event healthEvent = new HealthEvent();
+        Event jobEvent = jobEvent();
+        Event healthEvent = healthEvent();
         Event statisticsEvent = new StatisticsEvent();
 
-        when(mockEventHashOperations.values("event"))
+        when(mockEventCache.snapshot())
                 .thenReturn(Flux.just(
-                        jobEvent,
-                        healthEvent,
-                        statisticsEvent
+                        new EventRecord("job", eventSerializer.serialize(jobEvent), jobEvent),
+                        new EventRecord("health", eventSerializer.serialize(healthEvent), healthEvent),
+                        new EventRecord("statistics", eventSerializer.serialize(statisticsEvent), statisticsEvent)
                 ));
 
         StepVerifier.create(subject.getCachedEvents())
@@ -89,4 +100,131 @@ class EventSubscriptionServiceTest {
                 .verifyComplete();
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void subscribe_filtersByEventType() {
+        Event jobEvent = jobEvent();
+        Event healthEvent = healthEvent();
+
+        when(mockEventTemplate.listenToPattern(anyString()))
+                .thenReturn(Flux.just(
+                        message("event.job.something", jobEvent),
+                        message("event.health.something", healthEvent)
+                ));
+
+        StepVerifier.create(subject.subscribe(EventType.HEALTH))
+                .expectNext(healthEvent)
+                .verifyComplete();
+    }
+
+    @Test
+    void subscribe_sharesOneRedisSubscriptionBetweenSubscribers() {
+        DirectProcessor<ReactiveSubscription.PatternMessage<String, String, byte[]>> messages = DirectProcessor.create();
+        Event jobEvent = jobEvent();
+        Event healthEvent = healthEvent();
+
+        when(mockEventTemplate.listenToPattern(anyString())).thenReturn(messages);
+
+        StepVerifier first = StepVerifier.create(subject.subscribe(EventType.ALL))
+                .expectNext(jobEvent)
+                .expectNext(healthEvent)
+                .thenCancel()
+                .verifyLater();
+        StepVerifier second = StepVerifier.create(subject.subscribe(EventType.JOB))
+                .expectNext(jobEvent)
+                .thenCancel()
+                .verifyLater();
+
+        messages.onNext(message("event.job.something", jobEvent));
+        messages.onNext(message("event.health.something", healthEvent));
+
+        first.verify();
+        second.verify();
+        verify(mockEventTemplate, times(1)).listenToPattern("event*");
+    }
+
+    @Test
+    void subscribe_ifSubscriberIsSlow_resyncsFromTheCacheInsteadOfDroppingEvents() {
+        DirectProcessor<ReactiveSubscription.PatternMessage<String, String, byte[]>> messages = DirectProcessor.create();
+        Event first = jobEvent();
+        Event second = healthEvent();
+        Event third = new StatisticsEvent();
+
+        when(mockEventTemplate.listenToPattern(anyString())).thenReturn(messages);
+        when(mockEventCache.snapshot())
+                .thenReturn(Flux.just(
+                        new EventRecord("job.first", eventSerializer.serialize(first), first),
+                        new EventRecord("health.second", eventSerializer.serialize(second), second),
+                        new EventRecord("statistics.third", eventSerializer.serialize(third), third)
+                ));
+
+        StepVerifier.create(subject.subscribe(EventType.ALL), 0)
+                .then(() -> {
+                    messages.onNext(message("event.job.first", first));
+                    messages.onNext(message("event.health.second", second));
+                    messages.onNext(message("event.statistics.third", third));
+                })
+                .thenRequest(3)
+                .expectNext(third, first, second)
+                .thenCancel()
+                .verify();
+
+        assertThat(meterRegistry.get("event.subscription.frames").tag("outcome", "resynced").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void subscribeToRecords_forwardsDeletionsAsTombstones() {
+        DirectProcessor<ReactiveSubscription.PatternMessage<String, String, byte[]>> messages = DirectProcessor.create();
+        Event healthEvent = healthEvent();
+
+        when(mockEventTemplate.listenToPattern(anyString())).thenReturn(messages);
+
+        StepVerifier.create(subject.subscribeToRecords(EventFilter.ofType(EventType.HEALTH)).map(EventRecord::getJsonString))
+                .then(() -> {
+                    messages.onNext(message("event.health.something", healthEvent));
+                    messages.onNext(tombstone("job.something", 3));
+                    messages.onNext(tombstone("health.something", 3));
+                })
+                .expectNext(new String(eventSerializer.serialize(healthEvent)))
+                .expectNext("{\"version\":3,\"id\":\"health.something\",\"deleted\":true}")
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void subscribe_skipsDeletions() {
+        DirectProcessor<ReactiveSubscription.PatternMessage<String, String, byte[]>> messages = DirectProcessor.create();
+        Event healthEvent = healthEvent();
+
+        when(mockEventTemplate.listenToPattern(anyString())).thenReturn(messages);
+
+        StepVerifier.create(subject.subscribe(EventType.ALL))
+                .then(() -> {
+                    messages.onNext(tombstone("health.something", 3));
+                    messages.onNext(message("event.health.something", healthEvent));
+                })
+                .expectNext(healthEvent)
+                .thenCancel()
+                .verify();
+    }
+
+    private static ReactiveSubscription.PatternMessage<String, String, byte[]> tombstone(String id, long version) {
+        return new ReactiveSubscription.PatternMessage<>("event*", EventStream.DELETED_CHANNEL_PREFIX + id, EventRecord.tombstone(id, version).getJson());
+    }
+
+    private ReactiveSubscription.PatternMessage<String, String, byte[]> message(String channel, Event event) {
+        return new ReactiveSubscription.PatternMessage<>("event*", channel, eventSerializer.serialize(event));
+    }
+
+    private static Event jobEvent() {
+        JobEvent event = new JobEvent();
+        event.setStatus(JobEvent.Status.SUCCESS);
+        return event;
+    }
+
+    private static Event healthEvent() {
+        HealthEvent event = new HealthEvent();
+        event.setStatus(HealthEvent.Status.UP);
+        return event;
+    }
+}
@@ -11,79 +11,250 @@
  * distributed under the License is distributed on an "AS IS" BASIS,
  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
  * See the License for the specific language governing permissions and limitations under the License.
- *  
+ *
  */
 
 package com.ford.labs.daab.subscribers;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ford.labs.daab.cache.EventRecord;
+import com.ford.labs.daab.config.radiator.properties.EventDisplayProperties;
+import com.ford.labs.daab.config.radiator.properties.PageProperties;
+import com.ford.labs.daab.config.radiator.properties.RadiatorProperties;
 import com.ford.labs.daab.event.HealthEvent;
+import com.ford.labs.daab.radiator.RadiatorConfigurationService;
+import com.ford.labs.daab.radiator.RadiatorRoutes;
 import com.ford.labs.daab.event.JobEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.reactivestreams.Publisher;
-import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.socket.HandshakeInfo;
 import org.springframework.web.reactive.socket.WebSocketMessage;
 import org.springframework.web.reactive.socket.WebSocketSession;
+import reactor.core.publisher.DirectProcessor;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.net.URI;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class EventWebSocketHandlerTest {
     private EventWebSocketHandler subject;
     private EventSubscriptionService mockEventSubscriptionService = mock(EventSubscriptionService.class);
-    private ObjectMapper mockMapper = mock(ObjectMapper.class);
+    private RadiatorConfigurationService mockRadiatorConfigurationService = mock(RadiatorConfigurationService.class);
+    private WebSocketSession session = mock(WebSocketSession.class);
+
+    private EventRecord cachedRecord = new EventRecord("job.cached", "CACHED EVENT".getBytes(), new JobEvent());
+    private EventRecord freshRecord = new EventRecord("health.fresh", "FRESH EVENT".getBytes(), new HealthEvent());
 
     @BeforeEach
     void setup() {
-        subject = new EventWebSocketHandler(mockEventSubscriptionService, mockMapper);
+        subject = new EventWebSocketHandler(
+                mockEventSubscriptionService,
+                mockRadiatorConfigurationService,
+                new EventConflator(new SimpleMeterRegistry(), 512),
+                new ObjectMapper()
+        );
+
+        when(session.send(any())).thenReturn(Mono.empty());
+        when(session.bufferFactory()).thenReturn(new DefaultDataBufferFactory());
+        when(session.receive()).thenReturn(Flux.empty());
+        givenHandshakeUri("ws://localhost/event");
+
+        when(mockEventSubscriptionService.getCachedRecords(any(EventFilter.class)))
+                .thenAnswer(invocation -> Flux.just(cachedRecord).filter(invocation.<EventFilter>getArgument(0)::matches));
+        when(mockEventSubscriptionService.subscribeToRecords(any(EventFilter.class)))
+                .thenAnswer(invocation -> Flux.just(freshRecord).filter(invocation.<EventFilter>getArgument(0)::matches));
     }
 
     @Test
-    void handle_publishesEventsFromCacheAndQueueToWebSocketSession() throws JsonProcessingException {
-        JobEvent cachedEvent = new JobEvent();
-        HealthEvent freshEvent = new HealthEvent();
+    void handle_publishesEventsFromQueueAndCacheToWebSocketSession() {
+        subject.handle(session).block();
 
-        when(mockMapper.writeValueAsString(eq(cachedEvent))).thenReturn("CACHED EVENT");
-        when(mockMapper.writeValueAsString(eq(freshEvent))).thenReturn("FRESH EVENT");
+        StepVerifier.create(sentMessages())
+                .assertNext(message -> assertThat(message.getPayloadAsText()).isEqualTo("FRESH EVENT"))
+                .assertNext(message -> {
+                    assertThat(message.getType()).isEqualTo(WebSocketMessage.Type.TEXT);
+                    assertThat(message.getPayloadAsText()).isEqualTo("CACHED EVENT");
+                    assertThat(message.getPayload().asByteBuffer().array()).isSameAs(cachedRecord.getJson());
+                })
+                .verifyComplete();
+    }
 
-        WebSocketSession session = mock(WebSocketSession.class);
-        when(session.send(any())).thenReturn(Mono.empty());
-        when(session.textMessage(any())).thenAnswer(i -> stringToWebSocketMessage(i.getArgument(0).toString()));
+    @Test
+    void handle_whenSnapshotIsOlderThanLiveEvent_dropsSnapshotVersion() {
+        EventRecord live = new EventRecord("health.one", "{\"version\":7,\"id\":\"health.one\"}".getBytes(), new HealthEvent());
+        EventRecord snapshot = new EventRecord("health.one", "{\"version\":6,\"id\":\"health.one\"}".getBytes(), new HealthEvent());
+        when(mockEventSubscriptionService.subscribeToRecords(any(EventFilter.class))).thenReturn(Flux.just(live));
+        when(mockEventSubscriptionService.getCachedRecords(any(EventFilter.class))).thenReturn(Flux.just(snapshot));
 
-        when(mockEventSubscriptionService.getCachedEvents()).thenReturn(Flux.just(cachedEvent));
-        when(mockEventSubscriptionService.subscribe(anyString())).thenReturn(Flux.just(freshEvent));
+        subject.handle(session).block();
+
+        StepVerifier.create(sentMessages())
+                .assertNext(message -> assertThat(message.getPayloadAsText()).startsWith("{\"version\":7,"))
+                .verifyComplete();
+    }
+
+    @Test
+    void handle_withQueryParameters_onlySendsMatchingEvents() {
+        givenHandshakeUri("ws://localhost/event?ids=health.fresh,health.other&types=QUOTE");
 
         subject.handle(session).block();
 
-        ArgumentCaptor<Publisher<WebSocketMessage>> messageCaptor = ArgumentCaptor.forClass(Publisher.class);
+        StepVerifier.create(sentMessages())
+                .assertNext(message -> assertThat(message.getPayloadAsText()).isEqualTo("FRESH EVENT"))
+                .verifyComplete();
+    }
 
-        verify(session).send(messageCaptor.capture());
+    @Test
+    void handle_withSubscribeMessage_replacesFilter() {
+        DirectProcessor<WebSocketMessage> received = DirectProcessor.create();
+        when(session.receive()).thenReturn(received);
+        givenHandshakeUri("ws://localhost/event?prefixes=health.");
+
+        subject.handle(session).block();
 
-        StepVerifier.create(messageCaptor.getValue())
-                .assertNext(message -> assertThat(message.getPayloadAsText()).isEqualTo("WEB SOCKET MESSAGE:CACHED EVENT"))
-                .assertNext(message -> assertThat(message.getPayloadAsText()).isEqualTo("WEB SOCKET MESSAGE:FRESH EVENT"))
+        StepVerifier.create(sentMessages())
+                .assertNext(message -> assertThat(message.getPayloadAsText()).isEqualTo("FRESH EVENT"))
+                .then(() -> received.onNext(textMessage("{\"types\": [\"JOB\"]}")))
+                .assertNext(message -> assertThat(message.getPayloadAsText()).isEqualTo("CACHED EVENT"))
+                .then(() -> received.onNext(textMessage("not a subscription")))
+                .then(received::onComplete)
                 .verifyComplete();
     }
 
-    private WebSocketMessage stringToWebSocketMessage(String rawMessage) {
-        return new WebSocketMessage(
-                WebSocketMessage.Type.TEXT,
-                stringToDataBuffer(rawMessage)
-        );
+    @Test
+    void handle_withOnlyUnknownTypes_sendsNoEvents() {
+        givenHandshakeUri("ws://localhost/event?types=WETHER");
+
+        subject.handle(session).block();
+
+        StepVerifier.create(sentMessages())
+                .verifyComplete();
+    }
+
+    @Test
+    void handle_withNullSubscribeMessage_keepsSessionOpenAndSubscribesToEverything() {
+        DirectProcessor<WebSocketMessage> received = DirectProcessor.create();
+        when(session.receive()).thenReturn(received);
+        givenHandshakeUri("ws://localhost/event?prefixes=health.");
+
+        subject.handle(session).block();
+
+        StepVerifier.create(sentMessages())
+                .assertNext(message -> assertThat(message.getPayloadAsText()).isEqualTo("FRESH EVENT"))
+                .then(() -> received.onNext(textMessage("null")))
+                .expectNextCount(2)
+                .then(received::onComplete)
+                .verifyComplete();
     }
 
-    private DataBuffer stringToDataBuffer(String rawMessage) {
-        return new DefaultDataBufferFactory(true)
-                .wrap(String.join(":", "WEB SOCKET MESSAGE", rawMessage).getBytes());
+    @Test
+    void handle_withBatch_sendsSnapshotAsOneFrame() {
+        givenHandshakeUri("ws://localhost/event?batch=true");
+        when(mockEventSubscriptionService.getCachedSnapshotFrame(any(EventFilter.class)))
+                .thenReturn(Mono.just("[CACHED EVENT]".getBytes()));
+
+        subject.handle(session).block();
+
+        StepVerifier.create(sentMessages())
+                .assertNext(message -> assertThat(message.getPayloadAsText()).isEqualTo("[CACHED EVENT]"))
+                .assertNext(message -> assertThat(message.getPayloadAsText()).isEqualTo("FRESH EVENT"))
+                .verifyComplete();
+    }
+
+    @Test
+    void handle_withBatch_buffersLiveEventsUntilSnapshotIsSent() {
+        givenHandshakeUri("ws://localhost/event?batch=true");
+        DirectProcessor<EventRecord> live = DirectProcessor.create();
+        when(mockEventSubscriptionService.subscribeToRecords(any(EventFilter.class))).thenReturn(live);
+        when(mockEventSubscriptionService.getCachedSnapshotFrame(any(EventFilter.class)))
+                .thenReturn(Mono.fromSupplier(() -> {
+                    live.onNext(freshRecord);
+                    return "[CACHED EVENT]".getBytes();
+                }));
+
+        subject.handle(session).block();
+
+        StepVerifier.create(sentMessages())
+                .assertNext(message -> assertThat(message.getPayloadAsText()).isEqualTo("[CACHED EVENT]"))
+                .assertNext(message -> assertThat(message.getPayloadAsText()).isEqualTo("FRESH EVENT"))
+                .then(live::onComplete)
+                .verifyComplete();
+    }
+
+    @Test
+    void handle_withSince_resumesFromChangesInsteadOfSnapshot() {
+        givenHandshakeUri("ws://localhost/event?batch=true&since=42");
+        when(mockEventSubscriptionService.getCachedFrameChangedSince(any(EventFilter.class), eq(42L)))
+                .thenReturn(Mono.just("[CHANGED EVENT]".getBytes()));
+
+        subject.handle(session).block();
+
+        StepVerifier.create(sentMessages())
+                .assertNext(message -> assertThat(message.getPayloadAsText()).isEqualTo("[CHANGED EVENT]"))
+                .assertNext(message -> assertThat(message.getPayloadAsText()).isEqualTo("FRESH EVENT"))
+                .verifyComplete();
+
+        verify(mockEventSubscriptionService, never()).getCachedSnapshotFrame(any(EventFilter.class));
+    }
+
+    @Test
+    void handle_withRadiatorPage_onlySendsEventsOnThatPage() {
+        DirectProcessor<RadiatorRoutes> routes = DirectProcessor.create();
+        when(mockRadiatorConfigurationService.getRoutes()).thenReturn(routes);
+        givenHandshakeUri("ws://localhost/event?radiator=Sample&page=Pipeline");
+
+        subject.handle(session).block();
+
+        StepVerifier.create(sentMessages())
+                .then(() -> routes.onNext(RadiatorRoutes.compile(radiator(List.of("job.cached"), List.of("health.fresh")))))
+                .assertNext(message -> assertThat(message.getPayloadAsText()).isEqualTo("FRESH EVENT"))
+                .then(() -> routes.onNext(RadiatorRoutes.compile(radiator(List.of(), List.of("job.cached")))))
+                .assertNext(message -> assertThat(message.getPayloadAsText()).isEqualTo("CACHED EVENT"))
+                .then(routes::onComplete)
+                .verifyComplete();
     }
 
-}
\ No newline at end of file
+    private Publisher<WebSocketMessage> sentMessages() {
+        ArgumentCaptor<Publisher<WebSocketMessage>> messageCaptor = ArgumentCaptor.forClass(Publisher.class);
+        verify(session).send(messageCaptor.capture());
+        return messageCaptor.getValue();
+    }
+
+    private void givenHandshakeUri(String uri) {
+        when(session.getHandshakeInfo()).thenReturn(new HandshakeInfo(URI.create(uri), new HttpHeaders(), Mono.empty(), null));
+    }
+
+    private static WebSocketMessage textMessage(String payload) {
+        return new WebSocketMessage(WebSocketMessage.Type.TEXT, new DefaultDataBufferFactory().wrap(payload.getBytes()));
+    }
+
+    private static RadiatorProperties radiator(List<String> todayIds, List<String> pipelineIds) {
+        RadiatorProperties radiator = new RadiatorProperties();
+        radiator.setName("Sample");
+        radiator.setPages(List.of(page("Today", todayIds), page("Pipeline", pipelineIds)));
+        return radiator;
+    }
+
+    private static PageProperties page(String name, List<String> ids) {
+        PageProperties page = new PageProperties();
+        page.setName(name);
+        ids.forEach(id -> {
+            EventDisplayProperties tile = new EventDisplayProperties();
+            tile.setId(id);
+            page.getTiles().add(tile);
+        });
+        return page;
+    }
+}
@@ -15,14 +15,25 @@
  */
 
 import {Store} from "redux";
+import {Event} from 'model/event/Event';
 import {ApplicationState} from 'store/ApplicationState';
-import {emitConnected, emitDisconnected, updateEvent} from 'store/dashboard/actions';
+import {emitConnected, emitDisconnected, removeEvent, updateEvent} from 'store/dashboard/actions';
+
+const SUBSCRIPTION_PARAMETERS = ["ids", "prefixes", "types", "radiator", "page"];
+const INITIAL_RECONNECT_DELAY = 1000;
+const MAX_RECONNECT_DELAY = 60000;
+
+interface DeletedEvent {
+    id: string;
+    deleted: true;
+}
 
 export default class Subscriber {
     private readonly store: Store<ApplicationState>;
     private readonly websocketUrl: string;
     private socket: WebSocket | undefined;
-    private pollInterval?: number;
+    private latestVersion = 0;
+    private reconnectAttempts = 0;
 
     constructor(store: Store<ApplicationState>) {
         this.store = store;
@@ -30,29 +41,54 @@ export default class Subscriber {
         this.websocketUrl = process.env.NODE_ENV === "development"
             ? "ws://localhost:8080/event"
             : `${window.location.protocol === "https:" ? "wss" : "ws"}://${window.location.host}/event`;
+        this.websocketUrl += Subscriber.subscriptionQuery(window.location.search);
 
-        this.pollForBackendAvailability = this.pollForBackendAvailability.bind(this);
+        this.subscribe = this.subscribe.bind(this);
     }
 
     public subscribe() {
-        this.socket = new WebSocket(this.websocketUrl);
-        this.socket.onopen = () => this.store.dispatch(emitConnected());
-        this.socket.onmessage = (event) => this.store.dispatch(updateEvent(JSON.parse(event.data)));
-        this.socket.onerror = () => {
-            this.store.dispatch(emitDisconnected());
-            this.pollInterval = window.setInterval(this.pollForBackendAvailability, 30000);
+        const resumeQuery = this.latestVersion > 0 ? `&since=${this.latestVersion}` : "";
+
+        this.socket = new WebSocket(this.websocketUrl + resumeQuery);
+        this.socket.onopen = () => {
+            this.reconnectAttempts = 0;
+            this.store.dispatch(emitConnected());
         };
+        this.socket.onmessage = (message) => {
+            const data = JSON.parse(message.data);
+            const events: Array<Event | DeletedEvent> = Array.isArray(data) ? data : [data];
+            events.forEach((event) => {
+                if ("deleted" in event && event.deleted) {
+                    this.store.dispatch(removeEvent(event.id));
+                    return;
+                }
+
+                const update = event as Event;
+                this.latestVersion = Math.max(this.latestVersion, update.version || 0);
+                this.store.dispatch(updateEvent(update));
+            });
+        };
+        this.socket.onerror = () => this.store.dispatch(emitDisconnected());
         this.socket.onclose = () => {
             this.store.dispatch(emitDisconnected());
-            this.pollInterval = window.setInterval(this.pollForBackendAvailability, 30000);
+            window.setTimeout(this.subscribe, this.nextReconnectDelay());
         };
     }
 
-    public async pollForBackendAvailability() {
-        const response = await window.fetch("/actuator/health");
-        if (response.status === 200) {
-            window.clearInterval(this.pollInterval);
-            window.location.reload();
-        }
+    private nextReconnectDelay(): number {
+        const ceiling = Math.min(MAX_RECONNECT_DELAY, INITIAL_RECONNECT_DELAY * 2 ** this.reconnectAttempts);
+        this.reconnectAttempts++;
+        return Math.random() * ceiling;
+    }
+
+    private static subscriptionQuery(search: string): string {
+        const pageParameters = new URLSearchParams(search);
+        const subscriptionParameters = new URLSearchParams({batch: "true"});
+
+        SUBSCRIPTION_PARAMETERS
+            .filter((name) => pageParameters.has(name))
+            .forEach((name) => subscriptionParameters.set(name, pageParameters.getAll(name).join(",")));
+
+        return `?${subscriptionParameters.toString()}`;
     }
 }
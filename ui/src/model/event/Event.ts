@@ -30,6 +30,7 @@ import {WeatherEvent} from "./WeatherEvent";
 
 export interface AbstractEvent {
     id: string;
+    version?: number;
     eventType?: EventType;
     level: Level;
     name: string;
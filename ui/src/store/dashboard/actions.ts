@@ -22,6 +22,7 @@ export enum ActionTypes {
     GOTO_PAGE = "@@dashboard/GOTO_PAGE",
     INCREMENT_PAGE = "@@dashboard/INCREMENT_PAGE",
     UPDATE_EVENT = "@@dashboard/UPDATE_EVENT",
+    REMOVE_EVENT = "@@dashboard/REMOVE_EVENT",
     LOAD_CONFIGURATION = "@@dashboard/LOAD_CONFIGURATION",
     EMIT_DISCONNECTED = "@@dashboard/EMIT_DISCONNECTED",
     EMIT_CONNECTED = "@@dashboard/EMIT_CONNECTED",
@@ -33,6 +34,7 @@ export const gotoPage = (index: number) => action(ActionTypes.GOTO_PAGE, index);
 export const incrementPage = () => action(ActionTypes.INCREMENT_PAGE);
 
 export const updateEvent = (event: Event) => action(ActionTypes.UPDATE_EVENT, event);
+export const removeEvent = (id: string) => action(ActionTypes.REMOVE_EVENT, id);
 export const loadConfiguration =
     (configuration: Configuration) => action(ActionTypes.LOAD_CONFIGURATION, configuration);
 
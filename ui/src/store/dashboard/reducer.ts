@@ -60,6 +60,11 @@ function incrementPage(state: DashboardState, action: any): DashboardState {
 }
 
 function updateEvent(state: DashboardState, {payload}: { payload: Event }): DashboardState {
+    const current = state.events.get(payload.id);
+    if (current && current.version && payload.version && payload.version < current.version) {
+        return state;
+    }
+
     const events: EventMap = new Map<string, Event>(state.events);
 
     events.set(payload.id, payload);
@@ -67,6 +72,18 @@ function updateEvent(state: DashboardState, {payload}: { payload: Event }): Dash
     return Object.assign({}, state, {events});
 }
 
+function removeEvent(state: DashboardState, {payload}: { payload: string }): DashboardState {
+    if (!state.events.has(payload)) {
+        return state;
+    }
+
+    const events: EventMap = new Map<string, Event>(state.events);
+
+    events.delete(payload);
+
+    return Object.assign({}, state, {events});
+}
+
 function edit(state: DashboardState, action: any): DashboardState {
     return Object.assign({}, state, {isEditing: true});
 }
@@ -89,6 +106,8 @@ const reducer: Reducer<DashboardState> = (state: DashboardState = initialState,
             return incrementPage(state, action);
         case ActionTypes.UPDATE_EVENT:
             return updateEvent(state, action);
+        case ActionTypes.REMOVE_EVENT:
+            return removeEvent(state, action);
         case ActionTypes.EDIT:
             return edit(state, action);
         case ActionTypes.DISMISS_EDIT:
@@ -23,6 +23,7 @@ import {
     gotoPage,
     incrementPage,
     loadConfiguration,
+    removeEvent,
     updateEvent,
 } from "./dashboard/actions";
 import {DashboardState} from "./dashboard/state";
@@ -193,3 +194,62 @@ it("updateEvent updates event", () => {
 
     expect(store.getState().dashboard.events.get("some.random.event")).toBe(event);
 });
+
+it("updateEvent ignores older versions of an event", () => {
+    const initialState: DashboardState = {
+        configuration: {
+            pages: [],
+            name: "",
+        },
+        events: new Map<string, Event>(),
+        currentPage: 0,
+        isDisconnected: false,
+        isEditing: false,
+    };
+
+    const current: Event = {
+        id: "some.random.event",
+        version: 2,
+        // @ts-ignore
+        eventType: "UNKNOWN",
+        level: Level.OK,
+        name: "Some New Random Event",
+        time: "2020-01-01T00:00:00.000Z",
+    };
+    initialState.events.set("some.random.event", current);
+
+    const store = createTestStore(initialState);
+
+    store.dispatch(updateEvent({...current, version: 1, name: "Some Old Random Event"}));
+
+    expect(store.getState().dashboard.events.get("some.random.event")).toBe(current);
+});
+
+it("removeEvent removes a deleted event", () => {
+    const initialState: DashboardState = {
+        configuration: {
+            pages: [],
+            name: "",
+        },
+        events: new Map<string, Event>(),
+        currentPage: 0,
+        isDisconnected: false,
+        isEditing: false,
+    };
+
+    initialState.events.set("some.random.event", {
+        id: "some.random.event",
+        version: 2,
+        // @ts-ignore
+        eventType: "UNKNOWN",
+        level: Level.OK,
+        name: "Some Random Event",
+        time: "2020-01-01T00:00:00.000Z",
+    });
+
+    const store = createTestStore(initialState);
+
+    store.dispatch(removeEvent("some.random.event"));
+
+    expect(store.getState().dashboard.events.has("some.random.event")).toBe(false);
+});